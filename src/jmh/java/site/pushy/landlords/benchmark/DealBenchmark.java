@@ -0,0 +1,31 @@
+package site.pushy.landlords.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import site.pushy.landlords.core.CardDistribution;
+import site.pushy.landlords.core.Hand;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 开局洗牌、发牌的基准测试，多线程运行时可以观察多个房间同时开局的情况
+ * <p>
+ * 运行方式：mvn -Pbenchmark test-compile exec:exec -Djmh.args="-prof gc -t 4 DealBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DealBenchmark {
+
+    /**
+     * 与 GameServiceImpl.startGame 相同，每局使用新的 CardDistribution
+     */
+    @Benchmark
+    public Hand refresh() {
+        CardDistribution distribution = new CardDistribution();
+        distribution.refresh();
+        return distribution.getTopHand();
+    }
+}
@@ -0,0 +1,126 @@
+package site.pushy.landlords.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import site.pushy.landlords.core.CardUtils;
+import site.pushy.landlords.core.GradeComparison;
+import site.pushy.landlords.core.TypeJudgement;
+import site.pushy.landlords.core.enums.TypeEnum;
+import site.pushy.landlords.pojo.Card;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /games/play 请求中牌型判断与比较大小的基准测试
+ * <p>
+ * TypeJudgement 等旧的实现会对传入的牌列表原地排序，为了不让之后的调用测到已经排好序的输入，
+ * 每次调用都复制一份输入，所有基准测试都复制，复制的开销在新旧实现之间是相同的
+ * <p>
+ * 运行方式：mvn -Pbenchmark test-compile exec:exec -Djmh.args="-prof gc RuleEngineBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RuleEngineBenchmark {
+
+    private static final int SIZE = 4096;
+
+    /**
+     * 牌型判断的输入：LEGAL 为各种牌型的合法出牌，ILLEGAL 为不合法的出牌，FULL_HAND 为 20 张手牌
+     */
+    @Param({"LEGAL", "ILLEGAL", "FULL_HAND"})
+    public String workload;
+
+    private List<List<Card>> plays;
+
+    private List<List<Card>> myCards;
+    private List<TypeEnum> myTypes;
+    private List<List<Card>> prevCards;
+    private List<TypeEnum> prevTypes;
+
+    private List<List<Card>> hands;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(20190101L);
+        switch (workload) {
+            case "LEGAL":
+                plays = Workloads.legalPlays(random, SIZE);
+                break;
+            case "ILLEGAL":
+                plays = Workloads.illegalPlays(random, SIZE);
+                break;
+            default:
+                plays = Workloads.fullHands(random, SIZE);
+                break;
+        }
+        myCards = new ArrayList<>(SIZE);
+        myTypes = new ArrayList<>(SIZE);
+        prevCards = new ArrayList<>(SIZE);
+        prevTypes = new ArrayList<>(SIZE);
+        for (List<Card>[] pair : Workloads.comparablePlays(random, SIZE)) {
+            myCards.add(pair[0]);
+            myTypes.add(CardUtils.getCardsType(pair[0]));
+            prevCards.add(pair[1]);
+            prevTypes.add(CardUtils.getCardsType(pair[1]));
+        }
+        hands = Workloads.fullHands(random, SIZE);
+    }
+
+    private int next() {
+        return index = (index + 1) & (SIZE - 1);
+    }
+
+    /**
+     * 依次调用 TypeJudgement 的各个判断方法，与原先 CardUtils.getCardsType 的判断顺序相同
+     */
+    @Benchmark
+    public TypeEnum typeJudgement() {
+        List<Card> cards = new ArrayList<>(plays.get(next()));
+        if (TypeJudgement.isSingle(cards)) return TypeEnum.SINGLE;
+        if (TypeJudgement.isPair(cards)) return TypeEnum.PAIR;
+        if (TypeJudgement.isThree(cards)) return TypeEnum.THREE;
+        if (TypeJudgement.isThreeWithOne(cards)) return TypeEnum.THREE_WITH_ONE;
+        if (TypeJudgement.isThreeWithPair(cards)) return TypeEnum.THREE_WITH_PAIR;
+        if (TypeJudgement.isStraight(cards)) return TypeEnum.STRAIGHT;
+        if (TypeJudgement.isStraightPair(cards)) return TypeEnum.STRAIGHT_PAIR;
+        if (TypeJudgement.isFourWithTwo(cards)) return TypeEnum.FOUR_WITH_TWO;
+        if (TypeJudgement.isBomb(cards)) return TypeEnum.BOMB;
+        if (TypeJudgement.isJokerBomb(cards)) return TypeEnum.JOKER_BOMB;
+        if (TypeJudgement.isAircraft(cards)) return TypeEnum.AIRCRAFT;
+        if (TypeJudgement.isAircraftWithWing(cards)) return TypeEnum.AIRCRAFT_WITH_WINGS;
+        return null;
+    }
+
+    @Benchmark
+    public TypeEnum getCardsType() {
+        return CardUtils.getCardsType(new ArrayList<>(plays.get(next())));
+    }
+
+    /**
+     * 比较两手牌型相同的出牌，与 workload 无关
+     */
+    @Benchmark
+    public boolean canPlayCards() {
+        int i = next();
+        return GradeComparison.canPlayCards(new ArrayList<>(myCards.get(i)), myTypes.get(i),
+                new ArrayList<>(prevCards.get(i)), prevTypes.get(i));
+    }
+
+    /**
+     * 20 张手牌中是否有牌可以管住上家，与 workload 无关
+     */
+    @Benchmark
+    public boolean hasHighGradeCards() {
+        int i = next();
+        return GradeComparison.hasHighGradeCards(new ArrayList<>(hands.get(i)),
+                new ArrayList<>(prevCards.get(i)), prevTypes.get(i));
+    }
+}
@@ -0,0 +1,138 @@
+package site.pushy.landlords.benchmark;
+
+import site.pushy.landlords.core.CardPattern;
+import site.pushy.landlords.core.ConstructCard;
+import site.pushy.landlords.core.GradeHistogram;
+import site.pushy.landlords.core.Hand;
+import site.pushy.landlords.core.PatternTable;
+import site.pushy.landlords.core.enums.TypeEnum;
+import site.pushy.landlords.pojo.Card;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 基准测试使用的出牌数据，使用固定的种子生成，保证每次运行的输入相同
+ */
+final class Workloads {
+
+    /**
+     * 每种等级对应的牌 id
+     */
+    private static final List<List<Integer>> IDS_OF_GRADE = new ArrayList<>();
+
+    static {
+        for (int grade = 0; grade <= GradeHistogram.MAX_GRADE; grade++) {
+            IDS_OF_GRADE.add(new ArrayList<>());
+        }
+        for (int id = 1; id <= Hand.DECK_SIZE; id++) {
+            IDS_OF_GRADE.get(ConstructCard.getGradeById(id).getValue()).add(id);
+        }
+    }
+
+    private Workloads() {
+    }
+
+    /**
+     * 合法出牌，每种牌型的数量相同，花色随机
+     */
+    static List<List<Card>> legalPlays(Random random, int count) {
+        Map<TypeEnum, List<Long>> byType = legalHistogramsByType();
+        List<List<Card>> plays = new ArrayList<>(count);
+        TypeEnum[] types = TypeEnum.values();
+        for (int i = 0; i < count; i++) {
+            List<Long> histograms = byType.get(types[i % types.length]);
+            plays.add(toCards(histograms.get(random.nextInt(histograms.size())), random));
+        }
+        return plays;
+    }
+
+    /**
+     * 两两牌型相同的出牌，用于比较大小
+     *
+     * @return 每个元素为 {当前玩家的牌, 上家的牌}
+     */
+    static List<List<Card>[]> comparablePlays(Random random, int count) {
+        Map<TypeEnum, List<Long>> byType = legalHistogramsByType();
+        List<List<Card>[]> pairs = new ArrayList<>(count);
+        TypeEnum[] types = TypeEnum.values();
+        for (int i = 0; i < count; i++) {
+            List<Long> histograms = byType.get(types[i % types.length]);
+            @SuppressWarnings("unchecked")
+            List<Card>[] pair = new List[]{
+                    toCards(histograms.get(random.nextInt(histograms.size())), random),
+                    toCards(histograms.get(random.nextInt(histograms.size())), random)
+            };
+            pairs.add(pair);
+        }
+        return pairs;
+    }
+
+    /**
+     * 不合法的出牌，从一副牌中随机抽取 2 ~ 20 张
+     */
+    static List<List<Card>> illegalPlays(Random random, int count) {
+        PatternTable table = PatternTable.standard();
+        List<List<Card>> plays = new ArrayList<>(count);
+        while (plays.size() < count) {
+            List<Card> cards = randomCards(random, 2 + random.nextInt(PatternTable.MAX_CARDS - 1));
+            if (table.lookup(GradeHistogram.of(cards)) == CardPattern.ILLEGAL) {
+                plays.add(cards);
+            }
+        }
+        return plays;
+    }
+
+    /**
+     * 地主拿到底牌后的 20 张手牌
+     */
+    static List<List<Card>> fullHands(Random random, int count) {
+        List<List<Card>> hands = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            hands.add(randomCards(random, PatternTable.MAX_CARDS));
+        }
+        return hands;
+    }
+
+    private static List<Card> randomCards(Random random, int size) {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 1; id <= Hand.DECK_SIZE; id++) {
+            ids.add(id);
+        }
+        Collections.shuffle(ids, random);
+        List<Card> cards = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            cards.add(ConstructCard.getCard(ids.get(i)));
+        }
+        return cards;
+    }
+
+    private static List<Card> toCards(long histogram, Random random) {
+        List<Card> cards = new ArrayList<>();
+        for (int grade = GradeHistogram.MIN_GRADE; grade <= GradeHistogram.MAX_GRADE; grade++) {
+            List<Integer> ids = new ArrayList<>(IDS_OF_GRADE.get(grade));
+            Collections.shuffle(ids, random);
+            for (int i = 0; i < GradeHistogram.count(histogram, grade); i++) {
+                cards.add(ConstructCard.getCard(ids.get(i)));
+            }
+        }
+        Collections.shuffle(cards, random);
+        return cards;
+    }
+
+    private static Map<TypeEnum, List<Long>> legalHistogramsByType() {
+        PatternTable table = PatternTable.standard();
+        Map<TypeEnum, List<Long>> byType = new EnumMap<>(TypeEnum.class);
+        for (TypeEnum type : TypeEnum.values()) {
+            byType.put(type, new ArrayList<>());
+        }
+        for (int i = 0; i < table.size(); i++) {
+            byType.get(CardPattern.getType(table.patternAt(i))).add(table.histogramAt(i));
+        }
+        return byType;
+    }
+}
@@ -46,4 +46,34 @@ public class LandlordsProperties {
      * @see TimeoutStrategy
      */
     private TimeoutStrategy timeoutStrategy;
+
+    /**
+     * 机器人每次决策的时间预算, 单位: 毫秒
+     */
+    private int botDecisionMillis = 5;
+
+    /**
+     * 机器人决策线程池的队列长度, 队列满时拒绝新的决策
+     */
+    private int botQueueCapacity = 1024;
+
+    /**
+     * 评估手牌强度时模拟的局数上限
+     */
+    private int evaluatorSamples = 2000;
+
+    /**
+     * 评估手牌强度的时间预算, 单位: 毫秒
+     */
+    private int evaluatorMillis = 50;
+
+    /**
+     * 三个玩家剩余的牌数之和不超过该值时, 机器人使用残局求解
+     */
+    private int endgameMaxCards = 12;
+
+    /**
+     * 残局求解的时间预算, 单位: 毫秒
+     */
+    private int endgameMillis = 5;
 }
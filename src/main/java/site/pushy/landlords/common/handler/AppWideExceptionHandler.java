@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import site.pushy.landlords.common.exception.BaseException;
 import site.pushy.landlords.pojo.ApiResponse;
 
@@ -35,6 +36,17 @@ public class AppWideExceptionHandler {
         return ApiResponse.error(HttpStatus.BAD_REQUEST, errorMsg);
     }
 
+    /**
+     * 处理GET请求查询字符串类型不正确的错误
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ResponseBody
+    public ApiResponse<Object> argumentTypeMismatchException(MethodArgumentTypeMismatchException e) {
+        String errorMsg = String.format("Parameter '%s' is not valid", e.getName());
+        return ApiResponse.error(HttpStatus.BAD_REQUEST, errorMsg);
+    }
+
     /**
      * 处理POST表单校验不通过的错误
      */
@@ -11,6 +11,7 @@ import site.pushy.landlords.service.PlayerService;
 
 import javax.annotation.Resource;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Pushy
@@ -32,6 +33,14 @@ public class PlayerController {
         return ApiResponse.success(cards);
     }
 
+    /**
+     * 获取当前回合的出牌提示，按推荐程度从高到低排列，管不住上家时为空
+     */
+    @GetMapping("/hint")
+    public CompletableFuture<ApiResponse<List<List<Card>>>> getHint(@SessionAttribute User curUser) {
+        return playerService.getHint(curUser).thenApply(ApiResponse::success);
+    }
+
     /**
      * 判断当前是否是某玩家的出牌回合
      */
@@ -50,8 +59,24 @@ public class PlayerController {
         return ApiResponse.success(playerService.canPass(curUser));
     }
 
+    /**
+     * 判断玩家手中是否有牌可以管住上家，没有时客户端只能选择不出
+     */
+    @GetMapping("/playable")
+    public ApiResponse<Boolean> canPlay(@SessionAttribute User curUser) {
+        return ApiResponse.success(playerService.canPlay(curUser));
+    }
+
     @GetMapping("/bidding")
     public ApiResponse<Boolean> bid(@SessionAttribute User curUser) {
         return ApiResponse.success(playerService.canBid(curUser));
     }
+
+    /**
+     * 根据手牌强度建议叫牌的分数，0 代表不叫
+     */
+    @GetMapping("/bidding/suggestion")
+    public CompletableFuture<ApiResponse<Integer>> suggestBid(@SessionAttribute User curUser) {
+        return playerService.suggestBid(curUser).thenApply(ApiResponse::success);
+    }
 }
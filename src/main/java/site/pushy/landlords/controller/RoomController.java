@@ -1,22 +1,25 @@
 package site.pushy.landlords.controller;
 
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import site.pushy.landlords.common.exception.BadRequestException;
+import site.pushy.landlords.core.component.LobbyComponent;
 import site.pushy.landlords.core.component.RoomComponent;
+import site.pushy.landlords.core.enums.RoomStatusEnum;
 import site.pushy.landlords.pojo.ApiResponse;
 import site.pushy.landlords.pojo.DO.User;
 import site.pushy.landlords.pojo.DTO.CreateRoomDTO;
 import site.pushy.landlords.pojo.DTO.RoomDTO;
-import site.pushy.landlords.pojo.DTO.RoomListOutputDTO;
 import site.pushy.landlords.pojo.DTO.RoomOutDTO;
 import site.pushy.landlords.pojo.Room;
 import site.pushy.landlords.service.RoomService;
 
 import javax.annotation.Resource;
 import javax.validation.Valid;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Fuxing
@@ -26,6 +29,13 @@ import java.util.stream.Collectors;
 @RequestMapping(value = "/rooms", produces = "application/json")
 public class RoomController {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Resource
+    private LobbyComponent lobbyComponent;
+
     @Resource
     private RoomComponent roomComponent;
 
@@ -33,18 +43,45 @@ public class RoomController {
     private RoomService roomService;
 
     /**
-     * 获取所有房间列表
+     * 获取房间列表
+     * <p>
+     * 不带查询参数时返回所有房间，房间列表没有变化时返回 304；
+     * 带查询参数时按条件分页返回，下一页带上本页返回的 next 游标
+     *
+     * @param status    房间状态
+     * @param locked    房间是否设置密码
+     * @param freeSeats 至少有几个空座位
+     * @param title     标题前缀
+     * @param cursor    上一页返回的游标
+     * @param size      每页的房间数，默认 20，最多 100
      */
     @GetMapping("")
-    public ApiResponse<?> listRoom() {
-        List<Room> roomList = roomComponent.getRooms();
-        if (roomList.size() != 0) {
-            List<RoomListOutputDTO> dtoList = roomList.stream()
-                    .map(RoomListOutputDTO::new)
-                    .collect(Collectors.toList());
-            return ApiResponse.success(dtoList);
+    public ResponseEntity<?> listRoom(@RequestParam(required = false) RoomStatusEnum status,
+                                      @RequestParam(required = false) Boolean locked,
+                                      @RequestParam(required = false) Integer freeSeats,
+                                      @RequestParam(required = false) String title,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(required = false) Integer size,
+                                      WebRequest request) {
+        if (status != null || locked != null || freeSeats != null || title != null || cursor != null || size != null) {
+            int limit = size != null ? size : DEFAULT_PAGE_SIZE;
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                throw new BadRequestException("每页的房间数需要在 1 ~ " + MAX_PAGE_SIZE + " 之间");
+            }
+            if (freeSeats != null && freeSeats < 0) {
+                throw new BadRequestException("空座位数不能小于 0");
+            }
+            return ResponseEntity.ok(ApiResponse.success(roomComponent.queryLobby(status, locked,
+                    freeSeats != null ? freeSeats : 0, title, cursor, limit)));
+        }
+        LobbyComponent.Snapshot snapshot = lobbyComponent.getSnapshot();
+        if (request.checkNotModified(snapshot.getETag())) {
+            return null;
         }
-        return ApiResponse.success(roomList);
+        return ResponseEntity.ok()
+                .eTag(snapshot.getETag())
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .body(snapshot.getBody());
     }
 
     /**
@@ -65,23 +102,24 @@ public class RoomController {
         if (!StringUtils.hasLength(body.getTitle())) {
             throw new BadRequestException("房间名称不能为空");
         }
-        return ApiResponse.success(roomService.createRoom(curUser, body.getTitle(), body.getPassword()));
+        return ApiResponse.success(roomService.createRoom(curUser, body.getTitle(), body.getPassword(),
+                body.getRuleVariant()));
     }
 
     /**
      * 加入房间
      */
     @PostMapping("/join")
-    public ApiResponse<String> joinRoom(@Valid @RequestBody RoomDTO roomDTO,
-                                        @SessionAttribute User curUser) {
-        return ApiResponse.success(roomService.joinRoom(curUser, roomDTO));
+    public CompletableFuture<ApiResponse<String>> joinRoom(@Valid @RequestBody RoomDTO roomDTO,
+                                                           @SessionAttribute User curUser) {
+        return roomService.joinRoom(curUser, roomDTO).thenApply(ApiResponse::success);
     }
 
     /**
      * 退出房间
      */
     @PostMapping("/exit")
-    public ApiResponse<Boolean> exitRoom(@SessionAttribute User curUser) {
-        return ApiResponse.success(roomService.exitRoom(curUser));
+    public CompletableFuture<ApiResponse<Boolean>> exitRoom(@SessionAttribute User curUser) {
+        return roomService.exitRoom(curUser).thenApply(ApiResponse::success);
     }
 }
@@ -0,0 +1,261 @@
+package site.pushy.landlords.core;
+
+import site.pushy.landlords.core.enums.RuleVariantEnum;
+import site.pushy.landlords.core.enums.TypeEnum;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 机器人玩家，根据手牌决定叫牌的分数以及每一回合的出牌
+ * <p>
+ * 出牌在 {@link MoveGenerator} 生成的候选中选择：自由出牌时优先选择出完后剩余手数最少、
+ * 主牌等级最小的牌；管上家时选择最小的非炸弹，只有对手快要出完或者出完炸弹即可获胜时才使用炸弹。
+ * 每次决策都有时间预算，超出预算时立即返回当前已经找到的最好的出牌
+ * <p>
+ * 对象本身不可变，可以在多个线程中共享
+ */
+public class BotPlayer {
+
+    /**
+     * 默认每次决策的时间预算
+     */
+    public static final long DEFAULT_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    /**
+     * 每检查多少个候选出牌查看一次是否超时
+     */
+    private static final int CHECK_INTERVAL = 32;
+
+    private static final int TWO_GRADE = 13;
+    private static final int SMALL_JOKER_GRADE = 14;
+    private static final int BIG_JOKER_GRADE = 15;
+
+    private static final long BOMB_COST = 1L << 40;
+
+    private static final int RANK_INDEX_BITS = 20;
+
+    private final long budgetNanos;
+
+    public BotPlayer() {
+        this(DEFAULT_BUDGET_NANOS);
+    }
+
+    /**
+     * @param budgetNanos 每次决策的时间预算，单位：纳秒
+     */
+    public BotPlayer(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * 根据手牌中的大牌和炸弹决定叫牌的分数
+     *
+     * @return 1 ~ 3 分，0 代表不叫
+     */
+    public int bid(Hand hand) {
+        long histogram = hand.getHistogram();
+        int points = 0;
+        if (GradeHistogram.count(histogram, BIG_JOKER_GRADE) > 0) points += 4;
+        if (GradeHistogram.count(histogram, SMALL_JOKER_GRADE) > 0) points += 3;
+        points += GradeHistogram.count(histogram, TWO_GRADE) * 2;
+        for (int grade = GradeHistogram.MIN_GRADE; grade < TWO_GRADE; grade++) {
+            if (GradeHistogram.count(histogram, grade) == 4) {
+                points += 4;
+            }
+        }
+        if (points >= 10) return 3;
+        if (points >= 7) return 2;
+        if (points >= 5) return 1;
+        return 0;
+    }
+
+    /**
+     * 决定这一回合的出牌
+     *
+     * @param hand             机器人当前的手牌
+     * @param prevSignature    需要管住的上家出牌签名，自由出牌时为 {@link PlaySignature#NONE}
+     * @param partnerPlayed    需要管住的牌是否由队友打出
+     * @param minOpponentCards 对手中最少的剩余牌数
+     * @return 打出的牌，为空时代表不出，自由出牌时不会为空
+     */
+    public Hand play(Hand hand, long prevSignature, boolean partnerPlayed, int minOpponentCards) {
+        if (hand.isEmpty()) {
+            return Hand.EMPTY;
+        }
+        long deadline = System.nanoTime() + budgetNanos;
+        long move = prevSignature == PlaySignature.NONE
+                ? lead(hand.getHistogram(), minOpponentCards, deadline)
+                : respond(hand.getHistogram(), prevSignature, partnerPlayed, minOpponentCards, deadline);
+        return move == GradeHistogram.EMPTY ? Hand.EMPTY : hand.select(move);
+    }
+
+    /**
+     * 按照推荐程度从高到低排列所有可以出的牌，用于出牌提示
+     * <p>
+     * 推荐程度与机器人出牌的取舍相同，管上家时炸弹排在最后；能够一次出完时排在最前
+     *
+     * @param prevSignature 需要管住的上家出牌签名，自由出牌时为 {@link PlaySignature#NONE}
+     * @return 每个元素是一手出牌的等级直方图
+     */
+    public static long[] rank(long hand, long prevSignature) {
+        return rank(RuleSet.standard(), hand, prevSignature);
+    }
+
+    /**
+     * 与 {@link #rank(long, long)} 相同，候选出牌由房间的规则枚举，代价按照规则解释出的牌型计算，
+     * 癞子玩法下包含用癞子组成的出牌
+     */
+    public static long[] rank(RuleSet rules, long hand, long prevSignature) {
+        boolean leading = prevSignature == PlaySignature.NONE;
+        long[] moves;
+        if (rules.getVariant() == RuleVariantEnum.STANDARD) {
+            moves = leading ? MoveGenerator.allMoves(hand) : MoveGenerator.responses(hand,
+                    PlaySignature.getPattern(prevSignature), PlaySignature.getSize(prevSignature));
+        } else {
+            MoveGenerator.MoveList list = new MoveGenerator.MoveList();
+            if (leading) {
+                rules.forEachMove(hand, list);
+            } else {
+                rules.forEachResponse(hand, prevSignature, list);
+            }
+            moves = list.toArray();
+        }
+        // 代价不超过 41 位，与下标合并为一个 long 后排序
+        long[] keys = new long[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            long move = moves[i];
+            int pattern = PlaySignature.getPattern(rules.signature(move, prevSignature));
+            long cost = move == hand ? 0
+                    : leading ? leadCost(hand, move, pattern, Integer.MAX_VALUE) : responseCost(hand, move, pattern);
+            keys[i] = cost << RANK_INDEX_BITS | i;
+        }
+        Arrays.sort(keys);
+        long[] ranked = new long[moves.length];
+        for (int i = 0; i < keys.length; i++) {
+            ranked[i] = moves[(int) (keys[i] & ((1 << RANK_INDEX_BITS) - 1))];
+        }
+        return ranked;
+    }
+
+    private long lead(long hand, int minOpponentCards, long deadline) {
+        long[] moves = MoveGenerator.allMoves(hand);
+        long best = GradeHistogram.EMPTY;
+        long bestCost = Long.MAX_VALUE;
+        for (int i = 0; i < moves.length; i++) {
+            long move = moves[i];
+            if (move == hand) {
+                return move;
+            }
+            long cost = leadCost(hand, move, minOpponentCards);
+            if (cost < bestCost) {
+                best = move;
+                bestCost = cost;
+            }
+            if ((i + 1) % CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    private long respond(long hand, long prevSignature, boolean partnerPlayed, int minOpponentCards, long deadline) {
+        long[] moves = MoveGenerator.responses(hand,
+                PlaySignature.getPattern(prevSignature), PlaySignature.getSize(prevSignature));
+        long best = GradeHistogram.EMPTY;
+        long bestCost = Long.MAX_VALUE;
+        for (int i = 0; i < moves.length; i++) {
+            long move = moves[i];
+            if (move == hand) {
+                return move;
+            }
+            if (partnerPlayed) {
+                // 不压队友的牌，除非可以直接出完
+                continue;
+            }
+            long cost = responseCost(hand, move);
+            // 炸弹只在对手快要出完，或者出完炸弹只剩一手时使用
+            if (cost >= BOMB_COST && minOpponentCards > 2 && estimateTurns(hand - move) > 1) {
+                continue;
+            }
+            if (cost < bestCost) {
+                best = move;
+                bestCost = cost;
+            }
+            if ((i + 1) % CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 自由出牌的代价：炸弹留到最后，其次是出完后剩余的手数、主牌等级、张数
+     */
+    private static long leadCost(long hand, long move, int minOpponentCards) {
+        return leadCost(hand, move, PatternTable.standard().lookup(move), minOpponentCards);
+    }
+
+    private static long leadCost(long hand, long move, int pattern, int minOpponentCards) {
+        TypeEnum type = CardPattern.getType(pattern);
+        int rank = CardPattern.getRank(pattern);
+        if (type == TypeEnum.SINGLE && minOpponentCards == 1) {
+            // 对手只剩一张牌时，单牌从大往小出
+            rank = BIG_JOKER_GRADE - rank;
+        }
+        return (isBomb(type) ? BOMB_COST : 0)
+                | (long) estimateTurns(hand - move) << 16
+                | (long) rank << 8
+                | (0xFF - GradeHistogram.size(move));
+    }
+
+    /**
+     * 管牌的代价：炸弹在最后，其次是出完后剩余的手数、主牌等级
+     */
+    private static long responseCost(long hand, long move) {
+        return responseCost(hand, move, PatternTable.standard().lookup(move));
+    }
+
+    private static long responseCost(long hand, long move, int pattern) {
+        return (isBomb(CardPattern.getType(pattern)) ? BOMB_COST : 0)
+                | (long) estimateTurns(hand - move) << 8
+                | CardPattern.getRank(pattern);
+    }
+
+    private static boolean isBomb(TypeEnum type) {
+        return type == TypeEnum.BOMB || type == TypeEnum.JOKER_BOMB;
+    }
+
+    /**
+     * 粗略估计出完一手牌需要的手数：炸弹、王炸各一手，三张可以带走一个单牌或者对子，
+     * 其余的单牌、对子各一手，不考虑顺子
+     */
+    static int estimateTurns(long histogram) {
+        int turns = 0;
+        int trios = 0;
+        int rest = 0;
+        for (int grade = GradeHistogram.MIN_GRADE; grade < SMALL_JOKER_GRADE; grade++) {
+            switch (GradeHistogram.count(histogram, grade)) {
+                case 4:
+                    turns++;
+                    break;
+                case 3:
+                    trios++;
+                    break;
+                case 2:
+                case 1:
+                    rest++;
+                    break;
+                default:
+            }
+        }
+        int jokers = GradeHistogram.count(histogram, SMALL_JOKER_GRADE)
+                + GradeHistogram.count(histogram, BIG_JOKER_GRADE);
+        if (jokers == 2) {
+            turns++;
+        } else {
+            rest += jokers;
+        }
+        return turns + trios + Math.max(0, rest - trios);
+    }
+}
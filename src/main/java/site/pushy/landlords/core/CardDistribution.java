@@ -2,10 +2,18 @@ package site.pushy.landlords.core;
 
 import site.pushy.landlords.pojo.Card;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 每局开始重新发牌、分牌、获取每个玩家的牌
+ * <p>
+ * 发牌由 64 位的种子决定，同一个种子第一次 {@link #refresh()} 的结果总是相同的，
+ * 记录下种子即可复现一局的发牌（见 {@link GameRecord}）。
+ * 为了让每一局都能复现，默认的构造方法也使用由种子构造的随机数洗牌，而不是直接使用 {@link ThreadLocalRandom}：
+ * 种子取自当前线程的 ThreadLocalRandom，洗牌用的随机数由每局独占，多个房间同时开局时同样互不竞争。
+ * 不需要复现的场景可以通过 {@link #CardDistribution(RandomSource)} 传入 {@link RandomSource#threadLocal()}
  *
  * @author Pushy
  * @since 2018/12/30 21:49
@@ -13,126 +21,133 @@ import java.util.*;
 public class CardDistribution {
 
     /**
-     * 所有牌
+     * 底牌的张数
      */
-    private final List<Card> allCardList;
+    private static final int TOP_SIZE = 3;
 
     /**
-     * 玩家 1 的牌
+     * 洗牌用的牌堆，每个元素为牌的 id
      */
-    private final List<Card> player1Cards = new ArrayList<>();
+    private final byte[] deck = new byte[Hand.DECK_SIZE];
+
+    private final RandomSource random;
 
     /**
-     * 玩家 2 的牌
+     * 发牌的种子，通过 {@link #CardDistribution(RandomSource)} 构造时为 0
      */
-    private final List<Card> player2Cards = new ArrayList<>();
+    private final long seed;
 
     /**
-     * 玩家 3 的牌
+     * 三个玩家的牌，下标为玩家在房间中的序号 - 1
      */
-    private final List<Card> player3Cards = new ArrayList<>();
+    private final Hand[] playerHands = new Hand[3];
 
     /**
      * 底牌
      */
-    private List<Card> topCards = new ArrayList<>();
+    private Hand topHand = Hand.EMPTY;
 
+    /**
+     * 使用当前线程的 ThreadLocalRandom 生成一个新的种子，洗牌使用由该种子构造的随机数，见 {@link #getSeed()}
+     */
     public CardDistribution() {
-        allCardList = new Vector<>();
+        this(ThreadLocalRandom.current().nextLong());
     }
 
-    /**
-     * 刷新牌，重新洗牌，分牌
-     */
-    public synchronized void refresh() {
-        clear();
-        createCard();
-        shuffle();
-        deal();
+    public CardDistribution(long seed) {
+        this(seed, RandomSource.seeded(seed));
     }
 
     /**
-     * 创建牌
+     * @param random 洗牌使用的随机数来源，这种方式构造的发牌不能通过种子复现
      */
-    private void createCard() {
-        for (int i = 0; i < 54; i++) {
-            int id = i + 1;
-            Card card = new Card(id);
-            card.setType(ConstructCard.getTypeById(id));  // 设置花色
-            card.setNumber(ConstructCard.getNumberById(id));  // 设置牌的数值
-            card.setGrade(ConstructCard.getGradeById(id));  // 设置牌的等级
-            allCardList.add(card);
-        }
+    public CardDistribution(RandomSource random) {
+        this(0L, random);
     }
 
-    private synchronized void clear() {
-        allCardList.clear();
-        player1Cards.clear();
-        player2Cards.clear();
-        player3Cards.clear();
-        topCards.clear();
+    private CardDistribution(long seed, RandomSource random) {
+        this.seed = seed;
+        this.random = random;
+        Arrays.fill(playerHands, Hand.EMPTY);
     }
 
     /**
-     * 洗牌
+     * 刷新牌，重新洗牌，分牌
+     */
+    public synchronized void refresh() {
+        shuffle();
+        deal();
+    }
+
+    /**
+     * 洗牌，从有序的牌堆开始做一次 Fisher-Yates 洗牌，每种排列出现的概率相同
      */
     private void shuffle() {
-        for (int i = 0; i < 1000; i++) {
-            Collections.shuffle(allCardList);
+        for (int i = 0; i < deck.length; i++) {
+            deck[i] = (byte) (i + 1);
+        }
+        for (int i = deck.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte tmp = deck[i];
+            deck[i] = deck[j];
+            deck[j] = tmp;
         }
     }
 
     /**
-     * 分牌
+     * 分牌，轮流给三个玩家各分派 17 张牌，剩余的三张作为底牌
      */
     private void deal() {
-        /* 分派给1号玩家17张牌 */
-        for (int i = 0; i < 17; i++) {
-            Card card = allCardList.get(i * 3);
-            player1Cards.add(card);
+        long[] masks = new long[playerHands.length];
+        int dealt = deck.length - TOP_SIZE;
+        for (int i = 0; i < dealt; i++) {
+            masks[i % 3] |= Hand.bit(deck[i]);
         }
-        /* 分派给2号玩家17张牌 */
-        for (int i = 0; i < 17; i++) {
-            Card card = allCardList.get(i * 3 + 1);
-            player2Cards.add(card);
+        long top = 0L;
+        for (int i = dealt; i < deck.length; i++) {
+            top |= Hand.bit(deck[i]);
         }
-        /* 分派给3号玩家17张牌 */
-        for (int i = 0; i < 17; i++) {
-            Card card = allCardList.get(i * 3 + 2);
-            player3Cards.add(card);
+        for (int i = 0; i < playerHands.length; i++) {
+            playerHands[i] = Hand.ofMask(masks[i]);
         }
+        topHand = Hand.ofMask(top);
+    }
 
-        /* 将剩余的三张牌添加到地主的牌当中 */
-        topCards = allCardList.subList(51, 54);
-
-        /* 将玩家的牌通过等级由小到大的排序 */
-        Collections.sort(player1Cards);
-        Collections.sort(player2Cards);
-        Collections.sort(player3Cards);
+    public long getSeed() {
+        return seed;
     }
 
     /**
      * 获得地主的三张牌
      */
     public List<Card> getTopCards() {
-        return topCards;
+        return topHand.toCards();
+    }
+
+    public Hand getTopHand() {
+        return topHand;
     }
 
     /**
-     * 获取对应玩家该局的牌
+     * 获取对应玩家该局的牌，按照等级由大到小排列
      *
      * @param number 玩家在房间中的序号
      */
     public List<Card> getCards(int number) {
-        switch (number) {
-            case 1:
-                return player1Cards;
-            case 2:
-                return player2Cards;
-            case 3:
-                return player3Cards;
+        Hand hand = getHand(number);
+        return hand == null ? null : hand.toCards();
+    }
+
+    /**
+     * 获取对应玩家该局的牌
+     *
+     * @param number 玩家在房间中的序号
+     */
+    public Hand getHand(int number) {
+        if (number < 1 || number > 3) {
+            return null;
         }
-        return null;
+        return playerHands[number - 1];
     }
 
 }
@@ -0,0 +1,176 @@
+package site.pushy.landlords.core;
+
+import site.pushy.landlords.core.enums.TypeEnum;
+import site.pushy.landlords.pojo.Card;
+
+import java.util.List;
+
+/**
+ * 牌型识别，基于等级直方图一次性得出出牌的类型、主牌等级和长度
+ * <p>
+ * 识别结果被压缩为一个 int：
+ * <pre>
+ *   bit 16 ~ 23  类型（TypeEnum.ordinal() + 1），0 代表不合法
+ *   bit  8 ~ 15  长度，顺子、连对、飞机为连续的等级个数，其余牌型为 1
+ *   bit  0 ~  7  主牌等级，顺子、连对、飞机取最大的等级，带牌的牌型取被带的主体的等级
+ * </pre>
+ * 判定规则与 {@link TypeJudgement} 中的各个 isXxx 方法以及 {@link CardUtils#getCardsType} 的判定顺序保持一致
+ *
+ * @see GradeHistogram
+ */
+public class CardPattern {
+
+    /**
+     * 不合法的牌型
+     */
+    public static final int ILLEGAL = 0;
+
+    /**
+     * 顺子、连对中允许出现的最大等级，即 A
+     */
+    private static final int MAX_GRADE_OF_STRAIGHT = 12;
+
+    private static final int SMALL_JOKER_GRADE = 14;
+    private static final int BIG_JOKER_GRADE = 15;
+
+    private static final TypeEnum[] TYPES = TypeEnum.values();
+
+    /**
+     * 识别一组牌的牌型
+     */
+    public static int of(List<Card> cards) {
+        return classify(GradeHistogram.of(cards));
+    }
+
+    /**
+     * 根据等级直方图识别牌型，不合法时返回 {@link #ILLEGAL}
+     */
+    public static int classify(long histogram) {
+        int size = 0, maxGrade = 0;
+        // 按牌数分类的等级位图，第 g 位代表等级 g
+        int ones = 0, pairs = 0, threes = 0, fours = 0;
+        for (int grade = GradeHistogram.MIN_GRADE; grade <= GradeHistogram.MAX_GRADE; grade++) {
+            int count = GradeHistogram.count(histogram, grade);
+            if (count == 0) {
+                continue;
+            }
+            size += count;
+            maxGrade = grade;
+            switch (count) {
+                case 1:
+                    ones |= 1 << grade;
+                    break;
+                case 2:
+                    pairs |= 1 << grade;
+                    break;
+                case 3:
+                    threes |= 1 << grade;
+                    break;
+                case 4:
+                    fours |= 1 << grade;
+                    break;
+                default:  // 一副牌中同一等级最多 4 张
+                    return ILLEGAL;
+            }
+        }
+        int jokers = (1 << SMALL_JOKER_GRADE) | (1 << BIG_JOKER_GRADE);
+        if (size == 0 || (histogram >>> 60) != 0 || ((pairs | threes | fours) & jokers) != 0) {
+            return ILLEGAL;
+        }
+
+        switch (size) {
+            case 1:
+                return pack(TypeEnum.SINGLE, maxGrade, 1);
+            case 2:
+                if (pairs != 0) {
+                    return pack(TypeEnum.PAIR, maxGrade, 1);
+                }
+                return ones == jokers ? pack(TypeEnum.JOKER_BOMB, BIG_JOKER_GRADE, 1) : ILLEGAL;
+            case 3:
+                return threes != 0 ? pack(TypeEnum.THREE, maxGrade, 1) : ILLEGAL;
+            case 4:
+                if (threes != 0) {
+                    return pack(TypeEnum.THREE_WITH_ONE, highest(threes), 1);
+                }
+                return fours != 0 ? pack(TypeEnum.BOMB, maxGrade, 1) : ILLEGAL;
+            case 5:
+                if (threes != 0 && pairs != 0) {
+                    return pack(TypeEnum.THREE_WITH_PAIR, highest(threes), 1);
+                }
+                break;
+            case 6:
+                if (fours != 0) {
+                    return pack(TypeEnum.FOUR_WITH_TWO, highest(fours), 1);
+                }
+                break;
+            default:
+                break;
+        }
+
+        /* 顺子：至少 5 张连续的单牌，最大到 A */
+        if (ones != 0 && (pairs | threes | fours) == 0) {
+            if (size >= 5 && maxGrade <= MAX_GRADE_OF_STRAIGHT && isContinuous(ones)) {
+                return pack(TypeEnum.STRAIGHT, maxGrade, size);
+            }
+            return ILLEGAL;
+        }
+        /* 连对：至少 3 个连续的对子，最大到 A */
+        if (pairs != 0 && (ones | threes | fours) == 0) {
+            if (size >= 6 && maxGrade <= MAX_GRADE_OF_STRAIGHT && isContinuous(pairs)) {
+                return pack(TypeEnum.STRAIGHT_PAIR, maxGrade, size / 2);
+            }
+            return ILLEGAL;
+        }
+        /* 飞机与飞机带翅膀：至少 2 个连续的三张 */
+        if (Integer.bitCount(threes) < 2 || !isContinuous(threes)) {
+            return ILLEGAL;
+        }
+        int length = Integer.bitCount(threes);
+        if ((ones | pairs | fours) == 0) {
+            return pack(TypeEnum.AIRCRAFT, highest(threes), length);
+        }
+        // 翅膀要么都是单张，要么都是对子
+        if (size % 2 == 0 && fours == 0 && (ones == 0 || pairs == 0)) {
+            return pack(TypeEnum.AIRCRAFT_WITH_WINGS, highest(threes), length);
+        }
+        return ILLEGAL;
+    }
+
+    /**
+     * 获取牌型的类型，不合法时返回 null
+     */
+    public static TypeEnum getType(int pattern) {
+        int type = pattern >>> 16;
+        return type == 0 ? null : TYPES[type - 1];
+    }
+
+    /**
+     * 获取牌型的主牌等级
+     */
+    public static int getRank(int pattern) {
+        return pattern & 0xFF;
+    }
+
+    /**
+     * 获取牌型的长度
+     */
+    public static int getLength(int pattern) {
+        return (pattern >>> 8) & 0xFF;
+    }
+
+    public static int pack(TypeEnum type, int rank, int length) {
+        return (type.ordinal() + 1) << 16 | length << 8 | rank;
+    }
+
+    /**
+     * 判断位图中的等级是否连续
+     */
+    private static boolean isContinuous(int bits) {
+        int x = bits >>> Integer.numberOfTrailingZeros(bits);
+        return (x & (x + 1)) == 0;
+    }
+
+    private static int highest(int bits) {
+        return 31 - Integer.numberOfLeadingZeros(bits);
+    }
+}
@@ -0,0 +1,53 @@
+package site.pushy.landlords.core;
+
+/**
+ * 记牌器，记录一局游戏中每个等级还没有打出的牌数
+ * <p>
+ * 剩余的牌保存为一个等级直方图（见 {@link GradeHistogram}），每次出牌只需要减去出牌的直方图
+ */
+public final class CardTracker {
+
+    private static final long FULL_DECK = Hand.ofMask(Hand.FULL_MASK).getHistogram();
+
+    private volatile long remaining = FULL_DECK;
+
+    /**
+     * 记录打出的牌，调用方需保证这些牌还没有被记录过
+     */
+    public void record(Hand played) {
+        remaining -= played.getHistogram();
+    }
+
+    /**
+     * 还没有打出的牌的等级直方图
+     */
+    public long getRemaining() {
+        return remaining;
+    }
+
+    /**
+     * 某个等级还没有打出的牌数
+     */
+    public int count(int grade) {
+        return GradeHistogram.count(remaining, grade);
+    }
+
+    /**
+     * 除了自己的手牌以外还没有打出的牌，即其他玩家手中的牌和未翻开的底牌
+     */
+    public long unseen(Hand own) {
+        return remaining - own.getHistogram();
+    }
+
+    /**
+     * 转换为数组，下标为等级 - 1，即依次为 3 ~ K、A、2、小王、大王
+     */
+    public int[] toArray() {
+        long histogram = remaining;
+        int[] counts = new int[GradeHistogram.MAX_GRADE];
+        for (int grade = GradeHistogram.MIN_GRADE; grade <= GradeHistogram.MAX_GRADE; grade++) {
+            counts[grade - 1] = GradeHistogram.count(histogram, grade);
+        }
+        return counts;
+    }
+}
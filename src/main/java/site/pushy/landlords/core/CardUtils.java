@@ -43,38 +43,15 @@ public class CardUtils {
 
     /**
      * 判断几张牌的类型
+     * <p>
+     * 统计一次等级直方图后在 {@link PatternTable} 中查找即可得出类型，不会对传入的牌列表排序
      *
      * @see TypeEnum
      */
     public static TypeEnum getCardsType(List<Card> cards) {
-        TypeEnum type = null;
-        if (cards != null && cards.size() != 0) {
-            if (TypeJudgement.isSingle(cards)) {
-                type = TypeEnum.SINGLE;
-            } else if (TypeJudgement.isPair(cards)) {
-                type = TypeEnum.PAIR;
-            } else if (TypeJudgement.isThree(cards)) {
-                type = TypeEnum.THREE;
-            } else if (TypeJudgement.isThreeWithOne(cards)) {
-                type = TypeEnum.THREE_WITH_ONE;
-            } else if (TypeJudgement.isThreeWithPair(cards)) {
-                type = TypeEnum.THREE_WITH_PAIR;
-            } else if (TypeJudgement.isStraight(cards)) {
-                type = TypeEnum.STRAIGHT;
-            } else if (TypeJudgement.isStraightPair(cards)) {
-                type = TypeEnum.STRAIGHT_PAIR;
-            } else if (TypeJudgement.isFourWithTwo(cards)) {
-                type = TypeEnum.FOUR_WITH_TWO;
-            } else if (TypeJudgement.isBomb(cards)) {
-                type = TypeEnum.BOMB;
-            } else if (TypeJudgement.isJokerBomb(cards)) {
-                type = TypeEnum.JOKER_BOMB;
-            } else if (TypeJudgement.isAircraft(cards)) {
-                type = TypeEnum.AIRCRAFT;
-            } else if (TypeJudgement.isAircraftWithWing(cards)) {
-                type = TypeEnum.AIRCRAFT_WITH_WINGS;
-            }
+        if (cards == null || cards.size() == 0) {
+            return null;
         }
-        return type;
+        return CardPattern.getType(PatternTable.standard().lookup(GradeHistogram.of(cards)));
     }
 }
@@ -0,0 +1,191 @@
+package site.pushy.landlords.core;
+
+/**
+ * 手牌的组合索引，记录每个等级的牌数以及单张、对子、三张、炸弹所在的等级，随出牌增量维护
+ * <p>
+ * 对于 n = 1 ~ 4 分别保存一个「牌数至少为 n 的等级」位图，第 g 位代表等级 g，与 {@link MoveGenerator} 中的位图一致。
+ * 增加或者移除一张牌只会改变对应等级在其中一个位图中的位，因此每张牌的更新都是 O(1)；
+ * 顺子、连对、飞机的起止等级由位图的移位直接算出，不需要重新排序手牌
+ * <p>
+ * 对象是可变的，不是线程安全的，由持有它的 {@link site.pushy.landlords.pojo.Player} 在房间的邮箱（见 {@link RoomMailbox}）中修改
+ */
+public final class CombinationIndex {
+
+    private static final int MAX_GRADE_OF_STRAIGHT = 12;
+
+    private static final int MAX_COUNT = 4;
+
+    private static final int STRAIGHT_GRADES = (1 << (MAX_GRADE_OF_STRAIGHT + 1)) - 2;
+
+    private static final int SMALL_JOKER_GRADE = 14;
+    private static final int BIG_JOKER_GRADE = 15;
+
+    private long histogram = GradeHistogram.EMPTY;
+
+    /**
+     * 下标 n 为牌数至少为 n 的等级位图，下标 0 不使用
+     */
+    private final int[] atLeast = new int[MAX_COUNT + 1];
+
+    public static CombinationIndex of(Hand hand) {
+        return of(hand.getHistogram());
+    }
+
+    public static CombinationIndex of(long histogram) {
+        CombinationIndex index = new CombinationIndex();
+        for (int grade = GradeHistogram.MIN_GRADE; grade <= GradeHistogram.MAX_GRADE; grade++) {
+            int count = GradeHistogram.count(histogram, grade);
+            for (int n = 1; n <= count; n++) {
+                index.atLeast[n] |= 1 << grade;
+            }
+        }
+        index.histogram = histogram;
+        return index;
+    }
+
+    /**
+     * 增加一张指定等级的牌
+     *
+     * @throws IllegalStateException 该等级已经有 4 张牌
+     */
+    public void add(int grade) {
+        int count = GradeHistogram.count(histogram, grade) + 1;
+        if (count > MAX_COUNT) {
+            throw new IllegalStateException("等级的牌数超过 " + MAX_COUNT + " 张 => " + grade);
+        }
+        atLeast[count] |= 1 << grade;
+        histogram = GradeHistogram.add(histogram, grade);
+    }
+
+    /**
+     * 移除一张指定等级的牌
+     *
+     * @throws IllegalStateException 该等级没有牌
+     */
+    public void remove(int grade) {
+        int count = GradeHistogram.count(histogram, grade);
+        if (count == 0) {
+            throw new IllegalStateException("等级没有可以移除的牌 => " + grade);
+        }
+        atLeast[count] &= ~(1 << grade);
+        histogram = GradeHistogram.remove(histogram, grade);
+    }
+
+    /**
+     * 增加一手牌中的每一张牌
+     */
+    public void addAll(Hand cards) {
+        for (long rest = cards.getMask(); rest != 0; rest &= rest - 1) {
+            add(Hand.gradeOf(Long.numberOfTrailingZeros(rest) + 1));
+        }
+    }
+
+    /**
+     * 移除一手牌中的每一张牌
+     */
+    public void removeAll(Hand cards) {
+        for (long rest = cards.getMask(); rest != 0; rest &= rest - 1) {
+            remove(Hand.gradeOf(Long.numberOfTrailingZeros(rest) + 1));
+        }
+    }
+
+    public long getHistogram() {
+        return histogram;
+    }
+
+    public int size() {
+        return GradeHistogram.size(histogram);
+    }
+
+    public int count(int grade) {
+        return GradeHistogram.count(histogram, grade);
+    }
+
+    /**
+     * 牌数至少为 n 的等级位图
+     *
+     * @param n 1 ~ 4
+     */
+    public int atLeast(int n) {
+        return atLeast[n];
+    }
+
+    /**
+     * 牌数恰好为 n 的等级位图
+     *
+     * @param n 1 ~ 4
+     */
+    public int exactly(int n) {
+        return n == MAX_COUNT ? atLeast[n] : atLeast[n] & ~atLeast[n + 1];
+    }
+
+    public int pairs() {
+        return atLeast[2];
+    }
+
+    public int triples() {
+        return atLeast[3];
+    }
+
+    public int bombs() {
+        return atLeast[4];
+    }
+
+    public boolean hasJokerBomb() {
+        int jokers = (1 << SMALL_JOKER_GRADE) | (1 << BIG_JOKER_GRADE);
+        return (atLeast[1] & jokers) == jokers;
+    }
+
+    /**
+     * 每段连续等级的起点位图，只考虑可以组成顺子的等级（3 ~ A）
+     *
+     * @param n 每个等级至少的牌数，1 为顺子、2 为连对、3 为飞机
+     */
+    public int runStarts(int n) {
+        int grades = atLeast[n] & STRAIGHT_GRADES;
+        return grades & ~(grades << 1);
+    }
+
+    /**
+     * 每段连续等级的终点位图，与 {@link #runStarts(int)} 一一对应
+     */
+    public int runEnds(int n) {
+        int grades = atLeast[n] & STRAIGHT_GRADES;
+        return grades & ~(grades >>> 1);
+    }
+
+    /**
+     * 最长的一段连续等级的长度
+     *
+     * @param n 每个等级至少的牌数
+     */
+    public int longestRun(int n) {
+        int longest = 0;
+        int starts = runStarts(n);
+        int ends = runEnds(n);
+        // 起点和终点按等级从小到大一一配对
+        while (starts != 0) {
+            int start = Integer.numberOfTrailingZeros(starts);
+            int end = Integer.numberOfTrailingZeros(ends);
+            longest = Math.max(longest, end - start + 1);
+            starts &= starts - 1;
+            ends &= ends - 1;
+        }
+        return longest;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CombinationIndex && ((CombinationIndex) o).histogram == histogram;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(histogram);
+    }
+
+    @Override
+    public String toString() {
+        return "CombinationIndex(" + Long.toHexString(histogram) + ")";
+    }
+}
@@ -5,8 +5,17 @@ import org.slf4j.LoggerFactory;
 import site.pushy.landlords.core.enums.CardGradeEnum;
 import site.pushy.landlords.core.enums.CardNumberEnum;
 import site.pushy.landlords.core.enums.CardTypeEnum;
+import site.pushy.landlords.pojo.Card;
+
+import static site.pushy.landlords.core.enums.CardGradeEnum.*;
+import static site.pushy.landlords.core.enums.CardNumberEnum.*;
 
 /**
+ * 一副牌中 54 张牌的构造
+ * <p>
+ * id 1 ~ 52 按照方块、梅花、红桃、黑桃的顺序每 13 张为一种花色，每种花色内依次为 2、3 ~ K、A，
+ * 53、54 分别为小王、大王。每张牌只在类加载时构造一次，之后按 id 查表获取
+ *
  * @author Pushy
  * @since 2018/12/30 23:00
  */
@@ -14,144 +23,76 @@ public class ConstructCard {
 
     private static final Logger logger = LoggerFactory.getLogger(ConstructCard.class.getSimpleName());
 
+    private static final int DECK_SIZE = 54;
+
+    private static final CardTypeEnum[] SUITS = {
+            CardTypeEnum.DIAMOND, CardTypeEnum.CLUB, CardTypeEnum.HEART, CardTypeEnum.SPADE
+    };
+
     /**
-     * 通过id获取单张牌的类型
-     * @see CardTypeEnum
+     * 以 id % 13 为下标的数值
      */
-    public static CardTypeEnum getTypeById(int id) {
-        CardTypeEnum type;
+    private static final CardNumberEnum[] NUMBERS = {
+            ONE, TWO, THREE, FOUR, FIVE, SIX, SEVEN, EIGHT, NINE, TEN, JACK, LADY, KING
+    };
 
-        if (id >= 1 && id <= 13) {
-            type = CardTypeEnum.DIAMOND;
-        } else if (id >= 14 && id <= 26) {
-            type = CardTypeEnum.CLUB;
-        } else if (id >= 27 && id <= 39) {
-            type = CardTypeEnum.HEART;
-        } else if (id >= 40 && id <= 52) {
-            type = CardTypeEnum.SPADE;
-        } else if (id == 53) {
-            type = CardTypeEnum.SMALL_JOKER;
-        } else if (id == 54) {
-            type = CardTypeEnum.BIG_JOKER;
-        } else {
-            type = null;
-        }
-        return type;
-    }
+    /**
+     * 以 id % 13 为下标的等级，A 和 2 的等级比 3 ~ K 高
+     */
+    private static final CardGradeEnum[] GRADES = {
+            TWELFTH, THIRTEENTH, FIRST, SECOND, THIRD, FOURTH, FIFTH, SIXTH, SEVENTH, EIGHTH, NINTH, TENTH, ELEVENTH
+    };
 
     /**
-     * 通过牌的id获取单张牌的数值
-     * @see CardNumberEnum
+     * 以 id 为下标的所有牌，下标 0 不使用
      */
-    public static CardNumberEnum getNumberById(int id) {
-        if (id < 1 || id > 54) {
-            logger.error("输入的牌的id错误 => " + id);
-            throw new RuntimeException("输入的牌的id错误");
-        }
+    private static final Card[] CARDS = new Card[DECK_SIZE + 1];
 
-        CardNumberEnum number;
-        if (id >= 1 && id <= 52) {
-            number = convertNumToNumber(id % 13);
-        } else if (id == 53) {  // 小王
-            number = CardNumberEnum.SMALL_JOKER;
-        } else if (id == 54) {  // 大王
-            number = CardNumberEnum.BIG_JOKER;
-        } else {
-            number = null;
+    static {
+        for (int id = 1; id <= 52; id++) {
+            CARDS[id] = new Card(id, SUITS[(id - 1) / 13], NUMBERS[id % 13], GRADES[id % 13]);
         }
-        return number;
+        CARDS[53] = new Card(53, CardTypeEnum.SMALL_JOKER, SMALL_JOKER, FOURTEENTH);
+        CARDS[54] = new Card(54, CardTypeEnum.BIG_JOKER, BIG_JOKER, FIFTEENTH);
     }
 
-    public static CardGradeEnum getGradeById(int id) {
-        if (id < 1 || id > 54) {
-            logger.error("输入的牌的id错误");
-            throw  new RuntimeException("输入的牌的id错误");
-        }
-        CardGradeEnum grade;
-        if (id == 53) {  // 小王
-            grade = CardGradeEnum.FOURTEENTH;
-        } else if (id == 54) {  // 大王
-            grade = CardGradeEnum.FIFTEENTH;
-        }
-        /* 3 ~ K、A、2的情况，通过取余数后转换为对应的 CardNumberEnum */
-        else {
-            int modResult = id % 13;
-            grade = convertNumToGrade(modResult);
-        }
-        return grade;
+    /**
+     * 通过 id 获取对应的牌，同一个 id 始终返回同一个对象
+     */
+    public static Card getCard(int id) {
+        checkId(id);
+        return CARDS[id];
     }
 
     /**
-     * 将数字转换为对应的数值枚举值
-     * @see CardNumberEnum
+     * 通过id获取单张牌的类型
+     * @see CardTypeEnum
      */
-    private static CardNumberEnum convertNumToNumber(int num) {
-        switch (num) {
-            case 0:
-                return CardNumberEnum.ONE;
-            case 1:
-                return CardNumberEnum.TWO;
-            case 2:
-                return CardNumberEnum.THREE;
-            case 3:
-                return CardNumberEnum.FOUR;
-            case 4:
-                return CardNumberEnum.FIVE;
-            case 5:
-                return CardNumberEnum.SIX;
-            case 6:
-                return CardNumberEnum.SEVEN;
-            case 7:
-                return CardNumberEnum.EIGHT;
-            case 8:
-                return CardNumberEnum.NINE;
-            case 9:
-                return CardNumberEnum.TEN;
-            case 10:
-                return CardNumberEnum.JACK;
-            case 11:
-                return CardNumberEnum.LADY;
-            case 12:
-                return CardNumberEnum.KING;
+    public static CardTypeEnum getTypeById(int id) {
+        if (id < 1 || id > DECK_SIZE) {
+            return null;
         }
-        return null;
+        return CARDS[id].getType();
     }
 
     /**
-     * 将数字转换为对应的等级枚举值
-     * @see CardGradeEnum
+     * 通过牌的id获取单张牌的数值
+     * @see CardNumberEnum
      */
-    private static CardGradeEnum convertNumToGrade(int num) {
-        switch (num) {
-            case 0:  // A
-                return CardGradeEnum.TWELFTH;
-            case 1:  // 2
-                return CardGradeEnum.THIRTEENTH;
-            case 2:  // 3
-                return CardGradeEnum.FIRST;
-            case 3:
-                return CardGradeEnum.SECOND;
-            case 4:
-                return CardGradeEnum.THIRD;
-            case 5:
-                return CardGradeEnum.FOURTH;
-            case 6:
-                return CardGradeEnum.FIFTH;
-            case 7:
-                return CardGradeEnum.SIXTH;
-            case 8:
-                return CardGradeEnum.SEVENTH;
-            case 9:
-                return CardGradeEnum.EIGHTH;
-            case 10:  // J
-                return CardGradeEnum.NINTH;
-            case 11:  // Q
-                return CardGradeEnum.TENTH;
-            case 12:   // K
-                return CardGradeEnum.ELEVENTH;
-        }
-        return null;
+    public static CardNumberEnum getNumberById(int id) {
+        checkId(id);
+        return CARDS[id].getNumber();
     }
 
+    public static CardGradeEnum getGradeById(int id) {
+        checkId(id);
+        return CARDS[id].getGrade();
+    }
 
+    private static void checkId(int id) {
+        if (id < 1 || id > DECK_SIZE) {
+            logger.error("输入的牌的id错误 => " + id);
+            throw new RuntimeException("输入的牌的id错误");
+        }
+    }
 }
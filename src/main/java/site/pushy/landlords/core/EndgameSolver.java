@@ -0,0 +1,358 @@
+package site.pushy.landlords.core;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 残局求解器，在三个玩家的手牌都已知的情况下穷举剩余的对局，判断地主是否必胜并给出最优的出牌
+ * <p>
+ * 搜索在等级直方图上进行，地主为极大方、农民为极小方，结果只有胜负两种，
+ * 因此 alpha-beta 剪枝退化为找到一个对己方有利的出牌即可返回。局面以 Zobrist 哈希记录在置换表中，
+ * 出牌按照能否出完、张数从多到少的顺序尝试，不出总是最后尝试。出牌由 {@link MoveGenerator} 生成，
+ * 但不经过它的缓存，避免搜索中大量一次性的手牌挤掉缓存中真正的手牌
+ * <p>
+ * 置换表按线程复用，每次求解只把表的代号加一，旧的表项因为代号不同而失效，不需要重新分配或者清空整张表。
+ * 手牌的哈希在出牌时只对出牌涉及的等级做异或更新
+ * <p>
+ * 求解器本身不可变，可以在多个线程中共享
+ */
+public class EndgameSolver {
+
+    /**
+     * 默认的求解时间预算
+     */
+    public static final long DEFAULT_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private static final int TABLE_BITS = 15;
+
+    /**
+     * 每搜索多少个节点查看一次是否超时
+     */
+    private static final int CHECK_MASK = 1023;
+
+    private static final long[][] HAND_KEYS = new long[3][16 * 5];
+    private static final long[] CURRENT_KEYS = new long[3];
+    private static final long[] PRE_PLAYER_KEYS = new long[3];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5DEECE66DL);
+        for (long[] keys : HAND_KEYS) {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextLong();
+            }
+        }
+        for (int i = 0; i < 3; i++) {
+            CURRENT_KEYS[i] = random.nextLong();
+            PRE_PLAYER_KEYS[i] = random.nextLong();
+        }
+    }
+
+    private static final Timeout TIMEOUT = new Timeout();
+
+    private static final ThreadLocal<Table> TABLES = ThreadLocal.withInitial(Table::new);
+
+    private final long budgetNanos;
+
+    public EndgameSolver() {
+        this(DEFAULT_BUDGET_NANOS);
+    }
+
+    /**
+     * @param budgetNanos 每次求解的时间预算，单位：纳秒
+     */
+    public EndgameSolver(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * 求解的结果
+     */
+    public static final class Solution {
+
+        private static final Solution UNSOLVED = new Solution(false, false, GradeHistogram.EMPTY);
+
+        private final boolean solved;
+
+        private final boolean landlordWin;
+
+        private final long move;
+
+        Solution(boolean solved, boolean landlordWin, long move) {
+            this.solved = solved;
+            this.landlordWin = landlordWin;
+            this.move = move;
+        }
+
+        /**
+         * 是否在时间预算内完成求解，未完成时其余结果没有意义
+         */
+        public boolean isSolved() {
+            return solved;
+        }
+
+        /**
+         * 双方都按最优策略出牌时地主是否获胜
+         */
+        public boolean isLandlordWin() {
+            return landlordWin;
+        }
+
+        /**
+         * 当前玩家的最优出牌的等级直方图，不出时为 {@link GradeHistogram#EMPTY}；
+         * 必败时为张数最多的出牌
+         */
+        public long getMove() {
+            return move;
+        }
+
+        @Override
+        public String toString() {
+            return solved ? "Solution(" + (landlordWin ? "landlord" : "farmer") + ", "
+                    + Long.toHexString(move) + ")" : "Solution(unsolved)";
+        }
+    }
+
+    /**
+     * 求解当前局面
+     *
+     * @param hands         三个座位的手牌直方图，下标顺序即出牌顺序
+     * @param landlord      地主所在的下标
+     * @param current       当前出牌玩家的下标
+     * @param prePlayer     上一手出牌玩家的下标，与 current 相同时代表自由出牌
+     * @param prevSignature 上一手出牌的签名，自由出牌时为 {@link PlaySignature#NONE}
+     */
+    public Solution solve(long[] hands, int landlord, int current, int prePlayer, long prevSignature) {
+        boolean leading = prevSignature == PlaySignature.NONE || prePlayer == current;
+        Search search = new Search(hands, landlord, System.nanoTime() + budgetNanos, TABLES.get());
+        try {
+            return search.root(current, leading ? current : prePlayer,
+                    leading ? CardPattern.ILLEGAL : PlaySignature.getPattern(prevSignature),
+                    leading ? 0 : PlaySignature.getSize(prevSignature));
+        } catch (Timeout e) {
+            return Solution.UNSOLVED;
+        }
+    }
+
+    private static final class Search {
+
+        private final long[] hands;
+
+        private final long[] handHashes = new long[3];
+
+        private final int landlord;
+
+        private final long deadline;
+
+        private final long[] entries;
+
+        private final int[] generations;
+
+        private final int generation;
+
+        /**
+         * 所有深度共用的出牌栈，每一层使用栈顶的一段
+         */
+        private long[] stack = new long[256];
+
+        private int top;
+
+        private long nodes;
+
+        Search(long[] hands, int landlord, long deadline, Table table) {
+            this.hands = hands.clone();
+            this.landlord = landlord;
+            this.deadline = deadline;
+            this.entries = table.entries;
+            this.generations = table.generations;
+            this.generation = table.nextGeneration();
+            for (int i = 0; i < 3; i++) {
+                handHashes[i] = hashOf(i, this.hands[i]);
+            }
+        }
+
+        Solution root(int current, int prePlayer, int prevPattern, int prevSize) {
+            boolean maximizing = current == landlord;
+            int from = top;
+            int to = generate(current, prevPattern, prevSize);
+            long fallback = to > from ? stack[from] : GradeHistogram.EMPTY;
+            for (int i = from; i < to; i++) {
+                long move = stack[i];
+                if (play(current, move) == maximizing) {
+                    return new Solution(true, maximizing, move);
+                }
+            }
+            boolean leading = prePlayer == current;
+            if (!leading && pass(current, prePlayer, prevPattern, prevSize) == maximizing) {
+                return new Solution(true, maximizing, GradeHistogram.EMPTY);
+            }
+            return new Solution(true, !maximizing, fallback);
+        }
+
+        /**
+         * @return 地主是否获胜
+         */
+        private boolean search(int current, int prePlayer, int prevPattern, int prevSize) {
+            if ((++nodes & CHECK_MASK) == 0 && System.nanoTime() > deadline) {
+                throw TIMEOUT;
+            }
+            long hash = handHashes[0] ^ handHashes[1] ^ handHashes[2] ^ CURRENT_KEYS[current];
+            if (prePlayer != current) {
+                hash ^= PRE_PLAYER_KEYS[prePlayer] ^ mix((long) prevPattern << 8 | prevSize);
+            }
+            int slot = (int) (hash >>> (64 - TABLE_BITS));
+            long entry = entries[slot];
+            if (generations[slot] == generation && (entry | 1) == (hash | 1)) {
+                return (entry & 1) == 1;
+            }
+
+            boolean maximizing = current == landlord;
+            boolean result = !maximizing;
+            int from = top;
+            int to = generate(current, prePlayer == current ? CardPattern.ILLEGAL : prevPattern, prevSize);
+            for (int i = from; i < to; i++) {
+                if (play(current, stack[i]) == maximizing) {
+                    result = maximizing;
+                    break;
+                }
+            }
+            if (result != maximizing && prePlayer != current
+                    && pass(current, prePlayer, prevPattern, prevSize) == maximizing) {
+                result = maximizing;
+            }
+            top = from;
+            entries[slot] = (hash & ~1L) | (result ? 1 : 0);
+            generations[slot] = generation;
+            return result;
+        }
+
+        private boolean play(int current, long move) {
+            long hand = hands[current];
+            long rest = hand - move;
+            if (rest == GradeHistogram.EMPTY) {
+                return current == landlord;
+            }
+            long hashBefore = handHashes[current];
+            hands[current] = rest;
+            handHashes[current] = hashBefore ^ hashDelta(current, hand, move);
+            boolean result = search(next(current), current,
+                    PatternTable.standard().lookup(move), GradeHistogram.size(move));
+            hands[current] = hand;
+            handHashes[current] = hashBefore;
+            return result;
+        }
+
+        private boolean pass(int current, int prePlayer, int prevPattern, int prevSize) {
+            return search(next(current), prePlayer, prevPattern, prevSize);
+        }
+
+        /**
+         * 将当前玩家所有可以出的牌压入出牌栈，能够出完的牌排在最前，其余按张数从多到少排列
+         *
+         * @return 压入后的栈顶
+         */
+        private int generate(int current, int prevPattern, int prevSize) {
+            long hand = hands[current];
+            int from = top;
+            if (prevPattern == CardPattern.ILLEGAL) {
+                MoveGenerator.forEachMove(hand, this::push);
+            } else {
+                MoveGenerator.forEachResponse(hand, prevPattern, prevSize, this::push);
+            }
+            int to = top;
+            // 插入排序，保持生成器中同一张数从小到大的顺序
+            for (int i = from + 1; i < to; i++) {
+                long move = stack[i];
+                int key = orderKey(move, hand);
+                int j = i - 1;
+                while (j >= from && orderKey(stack[j], hand) < key) {
+                    stack[j + 1] = stack[j];
+                    j--;
+                }
+                stack[j + 1] = move;
+            }
+            return to;
+        }
+
+        private boolean push(long move) {
+            if (top == stack.length) {
+                stack = Arrays.copyOf(stack, top * 2);
+            }
+            stack[top++] = move;
+            return true;
+        }
+
+        private static int orderKey(long move, long hand) {
+            return move == hand ? Integer.MAX_VALUE : GradeHistogram.size(move);
+        }
+
+        private static int next(int current) {
+            return current == 2 ? 0 : current + 1;
+        }
+    }
+
+    private static long hashOf(int player, long histogram) {
+        long hash = 0;
+        long[] keys = HAND_KEYS[player];
+        for (int grade = GradeHistogram.MIN_GRADE; grade <= GradeHistogram.MAX_GRADE; grade++) {
+            hash ^= keys[grade * 5 + GradeHistogram.count(histogram, grade)];
+        }
+        return hash;
+    }
+
+    /**
+     * 出牌前后手牌哈希的差，只遍历出牌中张数不为 0 的等级
+     */
+    private static long hashDelta(int player, long hand, long move) {
+        long delta = 0;
+        long[] keys = HAND_KEYS[player];
+        for (long rest = move; rest != 0; ) {
+            int shift = Long.numberOfTrailingZeros(rest) & ~3;
+            rest &= ~(0xFL << shift);
+            int grade = (shift >>> 2) + GradeHistogram.MIN_GRADE;
+            int before = GradeHistogram.count(hand, grade);
+            int after = before - GradeHistogram.count(move, grade);
+            delta ^= keys[grade * 5 + before] ^ keys[grade * 5 + after];
+        }
+        return delta;
+    }
+
+    private static long mix(long x) {
+        x = (x ^ (x >>> 33)) * 0xFF51AFD7ED558CCDL;
+        x = (x ^ (x >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return x ^ (x >>> 33);
+    }
+
+    /**
+     * 线程复用的置换表，表项的代号与本次求解的代号相同时才有效
+     */
+    private static final class Table {
+
+        private final long[] entries = new long[1 << TABLE_BITS];
+
+        private final int[] generations = new int[1 << TABLE_BITS];
+
+        private int generation;
+
+        int nextGeneration() {
+            if (++generation == 0) {
+                // 代号用完一轮后清空一次，避免与很久以前的表项混淆
+                Arrays.fill(generations, 0);
+                generation = 1;
+            }
+            return generation;
+        }
+    }
+
+    /**
+     * 超出时间预算时用于跳出搜索，不记录堆栈
+     */
+    private static final class Timeout extends RuntimeException {
+
+        private static final long serialVersionUID = -3207265530129574316L;
+
+        Timeout() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package site.pushy.landlords.core;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * 一局游戏的紧凑记录
+ * <p>
+ * 发牌完全由 {@link CardDistribution} 的种子决定，因此一局游戏只需要记录种子、叫牌结果，
+ * 以及按顺序的每一手出牌。每一手出牌记录为 (牌的位图 << 2 | 玩家序号)，不出时位图为 0，
+ * 序列化时使用变长编码，一局完整的游戏通常只有一两百个字节，可以通过 {@link #replay()} 还原
+ */
+public final class GameRecord {
+
+    /**
+     * 序列化格式的版本
+     */
+    private static final int VERSION = 1;
+
+    private static final int PLAYER_BITS = 2;
+
+    private final long seed;
+
+    /**
+     * 地主玩家的序号，0 代表叫牌还未结束
+     */
+    private int landlord;
+
+    /**
+     * 叫牌的分数
+     */
+    private int score;
+
+    private long[] turns;
+
+    private int size;
+
+    public GameRecord(long seed) {
+        this(seed, 0, 0, new long[32], 0);
+    }
+
+    private GameRecord(long seed, int landlord, int score, long[] turns, int size) {
+        this.seed = seed;
+        this.landlord = landlord;
+        this.score = score;
+        this.turns = turns;
+        this.size = size;
+    }
+
+    /**
+     * 记录叫牌结果
+     *
+     * @param landlord 成为地主的玩家序号
+     * @param score    叫牌的分数
+     */
+    public void bid(int landlord, int score) {
+        this.landlord = landlord;
+        this.score = score;
+    }
+
+    /**
+     * 记录玩家出牌
+     */
+    public void play(int playerId, Hand cards) {
+        append(cards.getMask() << PLAYER_BITS | playerId);
+    }
+
+    /**
+     * 记录玩家不出
+     */
+    public void pass(int playerId) {
+        append(playerId);
+    }
+
+    private void append(long turn) {
+        if (size == turns.length) {
+            turns = Arrays.copyOf(turns, size * 2);
+        }
+        turns[size++] = turn;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getLandlord() {
+        return landlord;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * 已经记录的出牌回合数，包括不出
+     */
+    public int getTurnCount() {
+        return size;
+    }
+
+    /**
+     * 第 index 个回合的玩家序号
+     */
+    public int getPlayerId(int index) {
+        return (int) (turns[index] & ((1 << PLAYER_BITS) - 1));
+    }
+
+    /**
+     * 第 index 个回合打出的牌，不出时为空
+     */
+    public Hand getPlay(int index) {
+        return Hand.ofMask(turns[index] >>> PLAYER_BITS);
+    }
+
+    /**
+     * 按照记录重新发牌并依次出牌，得到每个玩家最终剩余的牌
+     *
+     * @return 下标为玩家序号 - 1
+     * @throws IllegalStateException 记录中的出牌不属于对应的玩家
+     */
+    public Hand[] replay() {
+        CardDistribution distribution = new CardDistribution(seed);
+        distribution.refresh();
+        Hand[] hands = new Hand[3];
+        for (int i = 0; i < hands.length; i++) {
+            hands[i] = distribution.getHand(i + 1);
+        }
+        if (landlord != 0) {
+            hands[landlord - 1] = hands[landlord - 1].addAll(distribution.getTopHand());
+        }
+        for (int i = 0; i < size; i++) {
+            int index = getPlayerId(i) - 1;
+            Hand play = getPlay(i);
+            if (!hands[index].containsAll(play)) {
+                throw new IllegalStateException("第 " + (i + 1) + " 手出牌不属于玩家 " + (index + 1));
+            }
+            hands[index] = hands[index].removeAll(play);
+        }
+        return hands;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + size * 4);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(VERSION);
+            out.writeLong(seed);
+            out.writeByte(landlord);
+            out.writeByte(score);
+            Varint.writeLong(out, size);
+            for (int i = 0; i < size; i++) {
+                Varint.writeLong(out, turns[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException 数据格式不正确
+     */
+    public static GameRecord fromBytes(byte[] data) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        try {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("游戏记录版本不匹配 => " + version);
+            }
+            long seed = in.readLong();
+            int landlord = in.readUnsignedByte();
+            int score = in.readUnsignedByte();
+            long size = Varint.readLong(in);
+            if (size < 0 || size > data.length) {
+                throw new IllegalArgumentException("游戏记录格式错误");
+            }
+            long[] turns = new long[(int) Math.max(size, 1)];
+            for (int i = 0; i < size; i++) {
+                turns[i] = Varint.readLong(in);
+            }
+            return new GameRecord(seed, landlord, score, turns, (int) size);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("游戏记录格式错误", e);
+        }
+    }
+
+    /**
+     * 编码为 URL 安全的 Base64 字符串，便于写入日志
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(toBytes());
+    }
+
+    public static GameRecord decode(String text) {
+        return fromBytes(Base64.getUrlDecoder().decode(text));
+    }
+}
@@ -5,7 +5,6 @@ import org.slf4j.LoggerFactory;
 import site.pushy.landlords.core.enums.TypeEnum;
 import site.pushy.landlords.pojo.Card;
 
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -18,6 +17,8 @@ public class GradeComparison {
 
     /**
      * 判断是否可以出牌，也就是当前玩家的牌是否比上家的大
+     * <p>
+     * 两手牌各自归约为 {@link PlaySignature} 后比较，不会对传入的牌列表排序
      *
      * @param myCards   当前玩家的牌
      * @param prevCards 上家的牌
@@ -30,71 +31,31 @@ public class GradeComparison {
         if (myType == null || prevType == null) {
             return false;
         }
-        /* 判断上家出的牌或者我出的牌是否是王炸 */
-        if (prevType == TypeEnum.JOKER_BOMB) {
-            return false;
-        } else if (myType == TypeEnum.JOKER_BOMB) {
-            return true;
-        }
-        /* 如果上家不是炸弹，而我出炸弹，则可以出牌 */
-        if (prevType != TypeEnum.BOMB && myType == TypeEnum.BOMB) {
-            return true;
-        }
-
-        Collections.sort(myCards);
-        Collections.sort(prevCards);
-
-        int mySize = myCards.size();
-        int prevSize = prevCards.size();
-        Card myCard = myCards.get(0);
-        Card prevCard = prevCards.get(0);
+        return PlaySignature.beats(PlaySignature.of(myCards), PlaySignature.of(prevCards));
+    }
 
-        /* 排除玩家出牌和出牌类型不一致的情况 */
-        if (prevType != myType) {
+    /**
+     * 判断是否可以出牌，直接基于两手牌的等级直方图比较，不需要排序或者转换为牌列表
+     *
+     * @param myHand   当前玩家出的牌
+     * @param prevHand 上家出的牌
+     */
+    public static boolean canPlayCards(Hand myHand, Hand prevHand) {
+        if (myHand == null || prevHand == null) {
             return false;
         }
-        /* 3带1，只需要比较第二张牌的等级即可 */
-        if (prevType == TypeEnum.THREE_WITH_ONE) {
-            myCard = myCards.get(1);
-            prevCard = prevCards.get(1);
-            return CardUtils.compareGradeTo(myCard, prevCard);
-        }
-        /* 3带一对，只需要比较第三张牌即可 */
-        else if (prevType == TypeEnum.THREE_WITH_PAIR) {
-            myCard = myCards.get(2);
-            prevCard = prevCards.get(2);
-            return CardUtils.compareGradeTo(myCard, prevCard);
-        }
-        /* 4带2，只需要比较第三张牌大小的等级 */
-        else if (prevType == TypeEnum.FOUR_WITH_TWO) {
-            myCard = myCards.get(2);
-            prevCard = prevCards.get(2);
-            return CardUtils.compareGradeTo(myCard, prevCard);
-        }
-        /* 顺子、连对一样，只需要比较最大的一张牌的大小 */
-        else if (prevType == TypeEnum.STRAIGHT || prevType == TypeEnum.STRAIGHT_PAIR) {
-            if (mySize != prevSize) {  // 出的顺子牌数不同，无法出牌
-                return false;
-            }
-            myCard = myCards.get(mySize - 1);
-            prevCard = prevCards.get(prevSize - 1);
-            return CardUtils.compareGradeTo(myCard, prevCard);
-        }
-        /* 飞机 */
-        else if (prevType == TypeEnum.AIRCRAFT) {
-            if (mySize == prevSize) {
-                return false;
-            } else {
-                // Todo 飞机判断存在问题
-                myCard = myCards.get(5);
-                prevCard = prevCards.get(5);
-                return CardUtils.compareGradeTo(myCard, prevCard);
-            }
-        }
-        /* 单张、对子、三张、炸弹等情况，都是只需要判断第一张牌大小即可 */
-        else {
-            return CardUtils.compareGradeTo(myCard, prevCard);
-        }
+        return PlaySignature.beats(PlaySignature.of(myHand), PlaySignature.of(prevHand));
+    }
+
+    /**
+     * 基于牌型判断是否可以出牌
+     * <p>
+     * 除炸弹外，只有类型、张数、长度都相同时才能比较，主牌等级更大即可出牌
+     *
+     * @see CardPattern
+     */
+    public static boolean canPlayCards(int myPattern, int mySize, int prevPattern, int prevSize) {
+        return PlaySignature.beats(PlaySignature.of(myPattern, mySize), PlaySignature.of(prevPattern, prevSize));
     }
 
     /**
@@ -113,11 +74,50 @@ public class GradeComparison {
             logger.error("上家出的牌不合法，无法出牌");
             return false;
         }
+        long prevHistogram = GradeHistogram.of(prevCards);
+        int prevPattern = PatternTable.standard().lookup(prevHistogram);
+        return MoveGenerator.hasResponse(GradeHistogram.of(myCards), prevPattern, prevCards.size());
+    }
 
-        // Todo 实现 => 判断当前玩家手中是否有牌可以管住上家出的牌
+    /**
+     * 判断当前玩家手中是否有牌可以管住上家出的牌
+     *
+     * @param myHand        当前玩家手中所有的牌
+     * @param prevSignature 上家出的牌的签名
+     */
+    public static boolean hasHighGradeCards(Hand myHand, long prevSignature) {
+        if (myHand == null || prevSignature == PlaySignature.NONE) {
+            return false;
+        }
+        return MoveGenerator.hasResponse(myHand.getHistogram(),
+                PlaySignature.getPattern(prevSignature), PlaySignature.getSize(prevSignature));
+    }
+
+    /**
+     * 判断当前玩家手中是否有牌可以管住上家出的牌，直接读取玩家维护的组合索引
+     *
+     * @param myIndex       当前玩家手牌的组合索引
+     * @param prevSignature 上家出的牌的签名
+     */
+    public static boolean hasHighGradeCards(CombinationIndex myIndex, long prevSignature) {
+        if (myIndex == null || prevSignature == PlaySignature.NONE) {
+            return false;
+        }
+        return MoveGenerator.hasResponse(myIndex,
+                PlaySignature.getPattern(prevSignature), PlaySignature.getSize(prevSignature));
+    }
 
-        Collections.sort(myCards);
-        Collections.sort(prevCards);
-        return false;
+    /**
+     * 判断当前玩家手中是否有牌可以管住上家出的牌
+     *
+     * @param myHand   当前玩家手中所有的牌
+     * @param prevHand 上家出的牌
+     */
+    public static boolean hasHighGradeCards(Hand myHand, Hand prevHand) {
+        if (myHand == null || prevHand == null) {
+            return false;
+        }
+        int prevPattern = PatternTable.standard().lookup(prevHand.getHistogram());
+        return MoveGenerator.hasResponse(myHand.getHistogram(), prevPattern, prevHand.size());
     }
 }
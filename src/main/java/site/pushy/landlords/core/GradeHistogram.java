@@ -0,0 +1,93 @@
+package site.pushy.landlords.core;
+
+import site.pushy.landlords.pojo.Card;
+
+import java.util.List;
+
+/**
+ * 牌等级直方图，将每个等级（1 ~ 15）的牌数压缩到一个 long 中
+ * <p>
+ * 每个等级占 4 位，等级 g 的牌数位于第 (g - 1) * 4 位开始的半字节，
+ * 因此统计、比较牌型时不需要排序，也不需要额外分配对象
+ *
+ * @see CardPattern
+ */
+public class GradeHistogram {
+
+    /**
+     * 空直方图
+     */
+    public static final long EMPTY = 0L;
+
+    /**
+     * 非法的直方图（例如存在未设置等级的牌），所有等级的牌数都视为 15 张
+     */
+    public static final long INVALID = -1L;
+
+    /**
+     * 最小、最大的牌等级
+     */
+    public static final int MIN_GRADE = 1;
+    public static final int MAX_GRADE = 15;
+
+    private static final int NIBBLE_MASK = 0xF;
+
+    /**
+     * 统计一组牌的等级直方图
+     */
+    public static long of(List<Card> cards) {
+        long histogram = EMPTY;
+        if (cards == null) {
+            return histogram;
+        }
+        for (int i = 0, size = cards.size(); i < size; i++) {
+            int grade = cards.get(i).getGradeValue();
+            if (grade < MIN_GRADE || grade > MAX_GRADE || count(histogram, grade) == NIBBLE_MASK) {
+                return INVALID;
+            }
+            histogram += unit(grade);
+        }
+        return histogram;
+    }
+
+    /**
+     * 获取某个等级的牌数
+     */
+    public static int count(long histogram, int grade) {
+        return (int) (histogram >>> shift(grade)) & NIBBLE_MASK;
+    }
+
+    /**
+     * 为某个等级增加一张牌
+     */
+    public static long add(long histogram, int grade) {
+        return histogram + unit(grade);
+    }
+
+    /**
+     * 为某个等级减少一张牌，调用方需保证该等级的牌数大于 0
+     */
+    public static long remove(long histogram, int grade) {
+        return histogram - unit(grade);
+    }
+
+    /**
+     * 直方图中牌的总张数
+     */
+    public static int size(long histogram) {
+        // 相邻半字节两两相加，最终累加到最高字节
+        long x = (histogram & 0x0F0F0F0F0F0F0F0FL) + ((histogram >>> 4) & 0x0F0F0F0F0F0F0F0FL);
+        return (int) ((x * 0x0101010101010101L) >>> 56);
+    }
+
+    /**
+     * 等级为 grade 的单张牌在直方图中对应的增量
+     */
+    public static long unit(int grade) {
+        return 1L << shift(grade);
+    }
+
+    private static int shift(int grade) {
+        return (grade - 1) << 2;
+    }
+}
@@ -0,0 +1,237 @@
+package site.pushy.landlords.core;
+
+import site.pushy.landlords.pojo.Card;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一手牌的不可变表示
+ * <p>
+ * 54 张牌（id 为 1 ~ 54，见 {@link ConstructCard}）压缩为一个 long 位图，第 id - 1 位代表该牌，
+ * 同时维护一个由位图派生的等级直方图（见 {@link GradeHistogram}），
+ * 因此添加、移除、判断是否持有以及统计某个等级的牌数都是 O(1) 的操作
+ */
+public final class Hand {
+
+    /**
+     * 一副牌的张数
+     */
+    public static final int DECK_SIZE = 54;
+
+    public static final Hand EMPTY = new Hand(0L, GradeHistogram.EMPTY);
+
+    /**
+     * 一整副牌对应的位图
+     */
+    public static final long FULL_MASK = (1L << DECK_SIZE) - 1;
+
+    /**
+     * 牌的 id 对应的等级
+     */
+    private static final int[] GRADES = new int[DECK_SIZE + 1];
+
+    /**
+     * 按等级从大到小（同等级按 id 从小到大）排列的牌 id，用于转换为牌列表
+     */
+    private static final int[] ORDER = new int[DECK_SIZE];
+
+    static {
+        for (int id = 1; id <= DECK_SIZE; id++) {
+            GRADES[id] = ConstructCard.getGradeById(id).getValue();
+        }
+        int index = 0;
+        for (int grade = GradeHistogram.MAX_GRADE; grade >= GradeHistogram.MIN_GRADE; grade--) {
+            for (int id = 1; id <= DECK_SIZE; id++) {
+                if (GRADES[id] == grade) {
+                    ORDER[index++] = id;
+                }
+            }
+        }
+    }
+
+    private final long mask;
+
+    private final long histogram;
+
+    private Hand(long mask, long histogram) {
+        this.mask = mask;
+        this.histogram = histogram;
+    }
+
+    /**
+     * 通过牌列表构造，牌的等级以 id 为准
+     *
+     * @throws IllegalArgumentException 存在非法的 id 或者重复的牌
+     */
+    public static Hand of(List<Card> cards) {
+        long mask = 0L, histogram = GradeHistogram.EMPTY;
+        for (int i = 0, size = cards.size(); i < size; i++) {
+            int id = cards.get(i).getId();
+            long bit = bit(id);
+            if ((mask & bit) != 0) {
+                throw new IllegalArgumentException("重复的牌 => " + id);
+            }
+            mask |= bit;
+            histogram = GradeHistogram.add(histogram, GRADES[id]);
+        }
+        return new Hand(mask, histogram);
+    }
+
+    /**
+     * 通过位图构造
+     */
+    public static Hand ofMask(long mask) {
+        if ((mask & ~FULL_MASK) != 0) {
+            throw new IllegalArgumentException("非法的牌位图 => " + Long.toHexString(mask));
+        }
+        long histogram = GradeHistogram.EMPTY;
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            histogram = GradeHistogram.add(histogram, GRADES[Long.numberOfTrailingZeros(rest) + 1]);
+        }
+        return new Hand(mask, histogram);
+    }
+
+    /**
+     * 牌的 id 在位图中对应的位
+     *
+     * @throws IllegalArgumentException id 不在 1 ~ 54 之间
+     */
+    public static long bit(int id) {
+        if (id < 1 || id > DECK_SIZE) {
+            throw new IllegalArgumentException("输入的牌的id错误 => " + id);
+        }
+        return 1L << (id - 1);
+    }
+
+    /**
+     * 牌的 id 对应的等级
+     */
+    public static int gradeOf(int id) {
+        return GRADES[id];
+    }
+
+    public Hand add(int id) {
+        long bit = bit(id);
+        if ((mask & bit) != 0) {
+            return this;
+        }
+        return new Hand(mask | bit, GradeHistogram.add(histogram, GRADES[id]));
+    }
+
+    public Hand remove(int id) {
+        long bit = bit(id);
+        if ((mask & bit) == 0) {
+            return this;
+        }
+        return new Hand(mask & ~bit, GradeHistogram.remove(histogram, GRADES[id]));
+    }
+
+    public Hand addAll(Hand other) {
+        long added = other.mask & ~mask;
+        if (added == other.mask) {
+            // 两手牌没有交集时，直方图可以直接相加
+            return new Hand(mask | added, histogram + other.histogram);
+        }
+        return ofMask(mask | added);
+    }
+
+    /**
+     * 移除另一手牌中的牌，不持有的牌会被忽略
+     */
+    public Hand removeAll(Hand other) {
+        long removed = mask & other.mask;
+        if (removed == other.mask) {
+            // 全部持有时，直方图可以直接相减
+            return new Hand(mask & ~removed, histogram - other.histogram);
+        }
+        return ofMask(mask & ~removed);
+    }
+
+    public boolean contains(int id) {
+        return (mask & bit(id)) != 0;
+    }
+
+    /**
+     * 是否持有另一手牌中的所有牌
+     */
+    public boolean containsAll(Hand other) {
+        return (other.mask & ~mask) == 0;
+    }
+
+    /**
+     * 按照直方图从手牌中选出具体的牌，同一等级优先选择 id 较小的牌
+     *
+     * @param histogram 需要选出的每个等级的张数，见 {@link GradeHistogram}
+     * @throws IllegalArgumentException 手牌中某个等级的牌数不足
+     */
+    public Hand select(long histogram) {
+        long need = histogram;
+        long picked = 0;
+        for (long rest = mask; rest != 0 && need != 0; rest &= rest - 1) {
+            int id = Long.numberOfTrailingZeros(rest) + 1;
+            int grade = GRADES[id];
+            if (GradeHistogram.count(need, grade) > 0) {
+                need = GradeHistogram.remove(need, grade);
+                picked |= 1L << (id - 1);
+            }
+        }
+        if (need != 0) {
+            throw new IllegalArgumentException("手牌中没有足够的牌 => " + Long.toHexString(histogram));
+        }
+        return new Hand(picked, histogram);
+    }
+
+    /**
+     * 某个等级的牌数
+     */
+    public int count(int grade) {
+        return GradeHistogram.count(histogram, grade);
+    }
+
+    public int size() {
+        return Long.bitCount(mask);
+    }
+
+    public boolean isEmpty() {
+        return mask == 0;
+    }
+
+    public long getMask() {
+        return mask;
+    }
+
+    public long getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * 转换为按等级从大到小排列的牌列表
+     */
+    public List<Card> toCards() {
+        List<Card> cards = new ArrayList<>(size());
+        for (int id : ORDER) {
+            if ((mask & (1L << (id - 1))) != 0) {
+                cards.add(ConstructCard.getCard(id));
+            }
+        }
+        return cards;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return mask == ((Hand) o).mask;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(mask);
+    }
+
+    @Override
+    public String toString() {
+        return "Hand(" + Long.toHexString(mask) + ")";
+    }
+}
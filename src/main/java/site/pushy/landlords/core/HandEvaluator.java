@@ -0,0 +1,258 @@
+package site.pushy.landlords.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 手牌强度评估，用于叫牌
+ * <p>
+ * 将看不到的牌随机分给两个农民和底牌，假设自己成为地主，用简单的出牌策略快速模拟对局到结束，
+ * 以地主获胜的比例估计胜率。模拟只在等级直方图上进行，不创建牌对象，
+ * 多次模拟在 {@link ForkJoinPool} 中并行执行，受模拟次数和时间预算的共同限制。
+ * {@link #evaluateAsync} 不阻塞调用的线程，所有模拟完成后在线程池中汇总结果
+ */
+public class HandEvaluator {
+
+    private static final int LANDLORD_CARDS = 20;
+    private static final int FARMER_CARDS = 17;
+
+    /**
+     * 每模拟多少局查看一次是否超时
+     */
+    private static final int CHECK_INTERVAL = 64;
+
+    private static final int MAX_GRADE_OF_PAIR = 13;
+
+    private final ForkJoinPool pool;
+
+    private final int samples;
+
+    private final long budgetNanos;
+
+    /**
+     * @param pool        执行模拟的线程池
+     * @param samples     模拟的局数上限
+     * @param budgetNanos 每次评估的时间预算，单位：纳秒
+     */
+    public HandEvaluator(ForkJoinPool pool, int samples, long budgetNanos) {
+        this.pool = pool;
+        this.samples = samples;
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * 评估的结果
+     */
+    public static final class Evaluation {
+
+        private final int rollouts;
+
+        private final int wins;
+
+        Evaluation(int rollouts, int wins) {
+            this.rollouts = rollouts;
+            this.wins = wins;
+        }
+
+        /**
+         * 实际模拟的局数，超时时可能少于设置的上限
+         */
+        public int getRollouts() {
+            return rollouts;
+        }
+
+        public int getWins() {
+            return wins;
+        }
+
+        /**
+         * 成为地主后的胜率，没有完成任何模拟时为 0
+         */
+        public double getWinRate() {
+            return rollouts == 0 ? 0 : (double) wins / rollouts;
+        }
+
+        /**
+         * 根据胜率建议的叫牌分数，0 代表不叫
+         * <p>
+         * 随机发牌时模拟胜率的中位数约为 0.45，大约一半的手牌会选择不叫
+         */
+        public int suggestBid() {
+            double winRate = getWinRate();
+            if (winRate >= 0.75) return 3;
+            if (winRate >= 0.6) return 2;
+            if (winRate >= 0.5) return 1;
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Evaluation(" + wins + "/" + rollouts + ")";
+        }
+    }
+
+    /**
+     * 评估一手牌成为地主后的胜率
+     *
+     * @param hand 叫牌时的 17 张牌，也可以是已经拿到底牌的 20 张牌
+     * @throws IllegalArgumentException 手牌超过 20 张
+     */
+    public Evaluation evaluate(Hand hand) {
+        return evaluate(hand, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * 使用固定的种子评估，在没有超时的情况下结果可以重现
+     */
+    public Evaluation evaluate(Hand hand, long seed) {
+        return evaluateAsync(hand, seed).join();
+    }
+
+    /**
+     * 异步评估，不阻塞调用的线程
+     *
+     * @throws IllegalArgumentException 手牌超过 20 张
+     */
+    public CompletableFuture<Evaluation> evaluateAsync(Hand hand) {
+        return evaluateAsync(hand, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * 使用固定的种子异步评估
+     *
+     * @throws IllegalArgumentException 手牌超过 20 张
+     */
+    public CompletableFuture<Evaluation> evaluateAsync(Hand hand, long seed) {
+        if (hand.size() > LANDLORD_CARDS) {
+            throw new IllegalArgumentException("手牌超过 " + LANDLORD_CARDS + " 张 => " + hand.size());
+        }
+        long deadline = System.nanoTime() + budgetNanos;
+        byte[] unseen = new byte[Hand.DECK_SIZE - hand.size()];
+        long rest = Hand.FULL_MASK & ~hand.getMask();
+        for (int i = 0; rest != 0; rest &= rest - 1) {
+            unseen[i++] = (byte) (Long.numberOfTrailingZeros(rest) + 1);
+        }
+
+        int tasks = Math.max(1, Math.min(pool.getParallelism(), samples));
+        SplittableRandom random = new SplittableRandom(seed);
+        List<CompletableFuture<Long>> futures = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            int count = samples / tasks + (i < samples % tasks ? 1 : 0);
+            SplittableRandom split = random.split();
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> simulate(hand.getHistogram(), unseen, count, split, deadline), pool));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            int rollouts = 0;
+            int wins = 0;
+            for (CompletableFuture<Long> future : futures) {
+                long result = future.join();
+                rollouts += (int) (result >>> 32);
+                wins += (int) result;
+            }
+            return new Evaluation(rollouts, wins);
+        });
+    }
+
+    /**
+     * @return 高 32 位为模拟的局数，低 32 位为地主获胜的局数
+     */
+    private static long simulate(long hand, byte[] unseen, int count, SplittableRandom random, long deadline) {
+        byte[] deck = unseen.clone();
+        long[] hands = new long[3];
+        int extra = deck.length - FARMER_CARDS * 2;
+        int rollouts = 0;
+        int wins = 0;
+        while (rollouts < count) {
+            for (int i = deck.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                byte tmp = deck[i];
+                deck[i] = deck[j];
+                deck[j] = tmp;
+            }
+            hands[0] = hand;
+            hands[1] = GradeHistogram.EMPTY;
+            hands[2] = GradeHistogram.EMPTY;
+            for (int i = 0; i < deck.length; i++) {
+                int owner = i < extra ? 0 : i < extra + FARMER_CARDS ? 1 : 2;
+                hands[owner] = GradeHistogram.add(hands[owner], Hand.gradeOf(deck[i]));
+            }
+            if (rollout(hands)) {
+                wins++;
+            }
+            rollouts++;
+            if (rollouts % CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                break;
+            }
+        }
+        return (long) rollouts << 32 | wins;
+    }
+
+    /**
+     * 从地主开始出牌模拟一局，每个玩家自由出牌时出最小的一组牌，三张时带上最小的单牌或对子；
+     * 管牌时出最小的可以管住的牌，农民之间不互相管牌
+     *
+     * @param hands 三个玩家的手牌直方图，下标 0 为地主，模拟过程中会被修改
+     * @return 地主是否获胜
+     */
+    static boolean rollout(long[] hands) {
+        PatternTable table = PatternTable.standard();
+        long[] response = new long[1];
+        int current = 0;
+        int prePlayer = 0;
+        int prevPattern = CardPattern.ILLEGAL;
+        int prevSize = 0;
+        while (true) {
+            long move;
+            if (prevPattern == CardPattern.ILLEGAL || prePlayer == current) {
+                move = lead(hands[current]);
+            } else if (current != 0 && prePlayer != 0) {
+                move = GradeHistogram.EMPTY;
+            } else {
+                response[0] = GradeHistogram.EMPTY;
+                MoveGenerator.forEachResponse(hands[current], prevPattern, prevSize, m -> {
+                    response[0] = m;
+                    return false;
+                });
+                move = response[0];
+            }
+            if (move != GradeHistogram.EMPTY) {
+                hands[current] -= move;
+                if (hands[current] == GradeHistogram.EMPTY) {
+                    return current == 0;
+                }
+                prevPattern = table.lookup(move);
+                prevSize = GradeHistogram.size(move);
+                prePlayer = current;
+            }
+            current = current == 2 ? 0 : current + 1;
+        }
+    }
+
+    /**
+     * 自由出牌：出等级最小的一组牌，三张时带上最小的单牌，没有单牌时带上最小的对子
+     */
+    private static long lead(long hand) {
+        int grade = Long.numberOfTrailingZeros(hand) / 4 + 1;
+        int count = GradeHistogram.count(hand, grade);
+        long move = GradeHistogram.unit(grade) * count;
+        if (count != 3) {
+            return move;
+        }
+        long pairKicker = GradeHistogram.EMPTY;
+        for (int g = grade + 1; g <= GradeHistogram.MAX_GRADE; g++) {
+            int c = GradeHistogram.count(hand, g);
+            if (c == 1) {
+                return move + GradeHistogram.unit(g);
+            }
+            if (c == 2 && g <= MAX_GRADE_OF_PAIR && pairKicker == GradeHistogram.EMPTY) {
+                pairKicker = GradeHistogram.unit(g) * 2;
+            }
+        }
+        return move + pairKicker;
+    }
+}
@@ -0,0 +1,231 @@
+package site.pushy.landlords.core;
+
+import site.pushy.landlords.core.enums.RoomStatusEnum;
+import site.pushy.landlords.core.enums.RuleVariantEnum;
+import site.pushy.landlords.pojo.DTO.RoomListOutputDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * 大厅房间列表的二级索引，支持按状态、是否加锁、空座位数和标题前缀分页查询
+ * <p>
+ * 房间按 (状态, 是否加锁, 空座位数) 分到不同的桶中，每个桶内按 标题 + 房间号 排序。
+ * 查询时只合并满足条件的桶，在每个桶里定位到标题前缀和游标之后的位置，再按顺序取出一页，
+ * 开销为 O(桶数 × log n + 页大小 × log 桶数)，与房间总数基本无关。
+ * <p>
+ * 翻页使用游标而不是偏移量，游标是上一页最后一个房间的排序键（Base64 编码），偏移量需要跳过前面所有的房间
+ */
+public final class LobbyIndex {
+
+    private static final char SEPARATOR = '\0';
+
+    private static final int MAX_FREE_SEATS = Arrays.stream(RuleVariantEnum.values())
+            .mapToInt(RuleVariantEnum::getSeats)
+            .max()
+            .orElse(0);
+
+    private static final RoomStatusEnum[] STATUSES = RoomStatusEnum.values();
+
+    private final List<ConcurrentNavigableMap<String, RoomListOutputDTO>> buckets;
+
+    /**
+     * 房间号 -> 当前在索引中的信息，同一个房间的更新通过该表串行执行
+     */
+    private final ConcurrentHashMap<String, RoomListOutputDTO> indexed = new ConcurrentHashMap<>();
+
+    public LobbyIndex() {
+        int count = STATUSES.length * 2 * (MAX_FREE_SEATS + 1);
+        buckets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            buckets.add(new ConcurrentSkipListMap<>());
+        }
+    }
+
+    /**
+     * 重新索引房间号对应的房间
+     * <p>
+     * current 在该房间号的锁内调用，返回房间号当前对应的房间在大厅中展示的信息，房间已经解散时返回 null。
+     * 同一个房间号的多次更新无论以什么顺序完成，最后一次总能读到最新的信息
+     */
+    public void update(String roomId, Supplier<RoomListOutputDTO> current) {
+        indexed.compute(roomId, (id, old) -> {
+            RoomListOutputDTO entry = current.get();
+            if (entry == old) {
+                return old;
+            }
+            if (entry != null) {
+                // 排序键和桶都不变时直接替换，查询不会短暂地看不到该房间
+                if (old != null && (bucket(old) != bucket(entry) || !key(old).equals(key(entry)))) {
+                    buckets.get(bucket(old)).remove(key(old));
+                }
+                buckets.get(bucket(entry)).put(key(entry), entry);
+            } else {
+                buckets.get(bucket(old)).remove(key(old));
+            }
+            return entry;
+        });
+    }
+
+    /**
+     * 分页查询房间
+     *
+     * @param status       房间状态，null 表示不限
+     * @param locked       是否加锁，null 表示不限
+     * @param minFreeSeats 至少有几个空座位
+     * @param titlePrefix  标题前缀，null 表示不限
+     * @param cursor       上一页返回的游标，null 表示第一页
+     * @param limit        每页的房间数
+     * @throws IllegalArgumentException 游标不合法
+     */
+    public Page query(RoomStatusEnum status, Boolean locked, int minFreeSeats,
+                      String titlePrefix, String cursor, int limit) {
+        String prefix = titlePrefix != null ? titlePrefix : "";
+        String after = null;
+        if (cursor != null) {
+            after = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        }
+        PriorityQueue<Head> heads = new PriorityQueue<>();
+        for (RoomStatusEnum s : STATUSES) {
+            if (status != null && s != status) {
+                continue;
+            }
+            for (int l = 0; l < 2; l++) {
+                if (locked != null && locked != (l == 1)) {
+                    continue;
+                }
+                for (int free = Math.max(minFreeSeats, 0); free <= MAX_FREE_SEATS; free++) {
+                    NavigableMap<String, RoomListOutputDTO> range =
+                            range(buckets.get(bucket(s, l == 1, free)), prefix, after);
+                    if (range == null) {
+                        continue;
+                    }
+                    Iterator<Map.Entry<String, RoomListOutputDTO>> iterator = range.entrySet().iterator();
+                    if (iterator.hasNext()) {
+                        heads.add(new Head(iterator.next(), iterator));
+                    }
+                }
+            }
+        }
+
+        // 多路归并，每次取出排序键最小的房间
+        List<RoomListOutputDTO> rooms = new ArrayList<>(limit);
+        String last = null;
+        while (rooms.size() < limit && !heads.isEmpty()) {
+            Head head = heads.poll();
+            rooms.add(head.entry.getValue());
+            last = head.entry.getKey();
+            if (head.iterator.hasNext()) {
+                head.entry = head.iterator.next();
+                heads.add(head);
+            }
+        }
+        String next = heads.isEmpty() ? null
+                : Base64.getUrlEncoder().withoutPadding().encodeToString(last.getBytes(StandardCharsets.UTF_8));
+        return new Page(rooms, next);
+    }
+
+    /**
+     * 处于某个状态的所有房间号，不保证顺序
+     */
+    public List<String> roomIds(RoomStatusEnum status) {
+        List<String> ids = new ArrayList<>();
+        for (int l = 0; l < 2; l++) {
+            for (int free = 0; free <= MAX_FREE_SEATS; free++) {
+                for (RoomListOutputDTO entry : buckets.get(bucket(status, l == 1, free)).values()) {
+                    ids.add(entry.getId());
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 索引中的房间数
+     */
+    public int size() {
+        return indexed.size();
+    }
+
+    /**
+     * 桶内标题前缀匹配并且排在游标之后的部分，没有时返回 null
+     */
+    private static NavigableMap<String, RoomListOutputDTO> range(ConcurrentNavigableMap<String, RoomListOutputDTO> bucket,
+                                                                 String prefix, String after) {
+        String from = prefix;
+        boolean fromInclusive = true;
+        if (after != null && after.compareTo(prefix) >= 0) {
+            from = after;
+            fromInclusive = false;
+        }
+        if (prefix.isEmpty()) {
+            return bucket.tailMap(from, fromInclusive);
+        }
+        String to = prefix + Character.MAX_VALUE;
+        if (from.compareTo(to) >= 0) {
+            return null;
+        }
+        return bucket.subMap(from, fromInclusive, to, false);
+    }
+
+    private static String key(RoomListOutputDTO entry) {
+        String title = entry.getTitle() != null ? entry.getTitle() : "";
+        return title + SEPARATOR + entry.getId();
+    }
+
+    private static int bucket(RoomListOutputDTO entry) {
+        return bucket(entry.getStatus(), entry.isLocked(), entry.getFreeSeats());
+    }
+
+    private static int bucket(RoomStatusEnum status, boolean locked, int freeSeats) {
+        int free = Math.min(Math.max(freeSeats, 0), MAX_FREE_SEATS);
+        return ((status.ordinal() * 2) + (locked ? 1 : 0)) * (MAX_FREE_SEATS + 1) + free;
+    }
+
+    private static final class Head implements Comparable<Head> {
+
+        private Map.Entry<String, RoomListOutputDTO> entry;
+
+        private final Iterator<Map.Entry<String, RoomListOutputDTO>> iterator;
+
+        Head(Map.Entry<String, RoomListOutputDTO> entry, Iterator<Map.Entry<String, RoomListOutputDTO>> iterator) {
+            this.entry = entry;
+            this.iterator = iterator;
+        }
+
+        @Override
+        public int compareTo(Head o) {
+            return entry.getKey().compareTo(o.entry.getKey());
+        }
+    }
+
+    /**
+     * 一页房间
+     */
+    public static final class Page {
+
+        private final List<RoomListOutputDTO> rooms;
+
+        private final String next;
+
+        Page(List<RoomListOutputDTO> rooms, String next) {
+            this.rooms = rooms;
+            this.next = next;
+        }
+
+        public List<RoomListOutputDTO> getRooms() {
+            return rooms;
+        }
+
+        /**
+         * 下一页的游标，没有下一页时为 null
+         */
+        public String getNext() {
+            return next;
+        }
+    }
+}
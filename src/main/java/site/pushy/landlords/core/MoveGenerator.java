@@ -0,0 +1,452 @@
+package site.pushy.landlords.core;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import site.pushy.landlords.core.enums.TypeEnum;
+
+import java.util.Arrays;
+
+/**
+ * 出牌生成器，基于等级直方图枚举手牌中可以打出的牌
+ * <p>
+ * 生成的每一手出牌都是手牌直方图的一个子直方图（见 {@link GradeHistogram}），
+ * 只关心等级与张数，不关心花色。枚举时先将手牌按牌数统计为几个等级位图，
+ * 之后只做位运算，不需要排序或者转换为牌列表
+ * <p>
+ * {@link #allMoves} 与 {@link #responses} 的结果按照手牌直方图缓存，同一回合内提示、
+ * 托管、机器人反复查询同一手牌时不需要重新枚举
+ */
+public class MoveGenerator {
+
+    /**
+     * 顺子、连对中允许出现的最大等级，即 A
+     */
+    private static final int MAX_GRADE_OF_STRAIGHT = 12;
+
+    /**
+     * 最大的非王牌等级，即 2
+     */
+    private static final int MAX_GRADE_OF_PAIR = 13;
+
+    private static final int SMALL_JOKER_GRADE = 14;
+    private static final int BIG_JOKER_GRADE = 15;
+
+    /**
+     * 顺子、连对、飞机的最小长度
+     */
+    private static final int MIN_LENGTH_OF_STRAIGHT = 5;
+    private static final int MIN_LENGTH_OF_STRAIGHT_PAIR = 3;
+    private static final int MIN_LENGTH_OF_AIRCRAFT = 2;
+
+    /**
+     * 缓存的手牌数量上限
+     */
+    private static final int CACHE_SIZE = 4096;
+
+    private static final long[] NO_MOVES = new long[0];
+
+    private static final LoadingCache<Key, long[]> cache = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_SIZE)
+            .build(CacheLoader.from(MoveGenerator::generate));
+
+    /**
+     * 出牌的访问者
+     */
+    @FunctionalInterface
+    public interface MoveVisitor {
+
+        /**
+         * @param move 出牌的等级直方图
+         * @return 返回 false 时停止枚举
+         */
+        boolean visit(long move);
+    }
+
+    /**
+     * 获取手牌中所有可以出的牌，即轮到自己自由出牌时的全部选择
+     * <p>
+     * 返回的数组是缓存中共享的对象，调用方不能修改
+     *
+     * @return 每个元素是一手出牌的等级直方图，牌型可以通过 {@link PatternTable#lookup(long)} 获取
+     */
+    public static long[] allMoves(Hand hand) {
+        return allMoves(hand.getHistogram());
+    }
+
+    public static long[] allMoves(long hand) {
+        return cache.getUnchecked(new Key(hand, CardPattern.ILLEGAL, 0));
+    }
+
+    /**
+     * 获取手牌中所有可以管住上家的出牌，顺序与 {@link #forEachResponse} 相同
+     * <p>
+     * 返回的数组是缓存中共享的对象，调用方不能修改
+     *
+     * @param lastPlay 上家出的牌
+     */
+    public static long[] responses(Hand hand, Hand lastPlay) {
+        long prev = lastPlay.getHistogram();
+        return responses(hand.getHistogram(), PatternTable.standard().lookup(prev), lastPlay.size());
+    }
+
+    public static long[] responses(long hand, int prevPattern, int prevSize) {
+        if (prevPattern == CardPattern.ILLEGAL) {
+            return NO_MOVES;
+        }
+        return cache.getUnchecked(new Key(hand, prevPattern, prevSize));
+    }
+
+    /**
+     * 枚举手牌中所有可以出的牌，按牌型分组，同一牌型内从小到大
+     *
+     * @return 是否完整地枚举完，访问者中途停止时返回 false
+     */
+    public static boolean forEachMove(long hand, MoveVisitor visitor) {
+        Counts counts = new Counts(hand);
+        if (!groups(counts.atLeast1, 1, 0, visitor)
+                || !groups(counts.atLeast2 & gradesUpTo(MAX_GRADE_OF_PAIR), 2, 0, visitor)
+                || !groups(counts.atLeast3, 3, 0, visitor)
+                || !withKickers(counts.atLeast3, 3, 0, counts.atLeast1, 1, 1, visitor)
+                || !withKickers(counts.atLeast3, 3, 0, counts.atLeast2 & gradesUpTo(MAX_GRADE_OF_PAIR), 1, 2, visitor)
+                || !fourWithTwo(counts, 0, visitor)) {
+            return false;
+        }
+        for (int length = MIN_LENGTH_OF_STRAIGHT; length <= MAX_GRADE_OF_STRAIGHT; length++) {
+            if (!chains(counts.atLeast1, 1, length, 0, MAX_GRADE_OF_STRAIGHT, visitor)) {
+                return false;
+            }
+        }
+        for (int length = MIN_LENGTH_OF_STRAIGHT_PAIR; length * 2 <= PatternTable.MAX_CARDS; length++) {
+            if (!chains(counts.atLeast2, 2, length, 0, MAX_GRADE_OF_STRAIGHT, visitor)) {
+                return false;
+            }
+        }
+        for (int length = MIN_LENGTH_OF_AIRCRAFT; length * 3 <= PatternTable.MAX_CARDS; length++) {
+            if (!chains(counts.atLeast3, 3, length, 0, MAX_GRADE_OF_PAIR, visitor)) {
+                return false;
+            }
+            // 总张数为偶数时翅膀可以是任意数量的单张；飞机长度为偶数时翅膀也可以是对子
+            for (int wingCards = 1; length * 3 + wingCards <= PatternTable.MAX_CARDS; wingCards++) {
+                if ((length * 3 + wingCards) % 2 == 0
+                        && !aircraftWithWings(counts, length, wingCards, 0, visitor)) {
+                    return false;
+                }
+            }
+        }
+        return groups(counts.fours, 4, 0, visitor) && jokerBomb(counts, visitor);
+    }
+
+    /**
+     * 判断手牌中是否有牌可以管住上家出的牌，找到第一手即返回
+     *
+     * @param hand        手牌的等级直方图
+     * @param prevPattern 上家出的牌的牌型
+     * @param prevSize    上家出的牌的张数
+     */
+    public static boolean hasResponse(long hand, int prevPattern, int prevSize) {
+        return !forEachResponse(hand, prevPattern, prevSize, move -> false);
+    }
+
+    /**
+     * 与 {@link #hasResponse(long, int, int)} 相同，直接使用玩家维护的组合索引，不需要重新统计手牌
+     */
+    public static boolean hasResponse(CombinationIndex index, int prevPattern, int prevSize) {
+        return !forEachResponse(new Counts(index), prevPattern, prevSize, move -> false);
+    }
+
+    /**
+     * 按照从小到大的顺序枚举手牌中所有可以管住上家的出牌，炸弹、王炸排在最后
+     *
+     * @return 是否完整地枚举完，访问者中途停止时返回 false
+     */
+    public static boolean forEachResponse(long hand, int prevPattern, int prevSize, MoveVisitor visitor) {
+        return forEachResponse(new Counts(hand), prevPattern, prevSize, visitor);
+    }
+
+    private static boolean forEachResponse(Counts counts, int prevPattern, int prevSize, MoveVisitor visitor) {
+        TypeEnum prevType = CardPattern.getType(prevPattern);
+        if (prevType == null) {
+            return true;
+        }
+        if (prevType == TypeEnum.JOKER_BOMB) {
+            return true;
+        }
+        int rank = CardPattern.getRank(prevPattern);
+        int length = CardPattern.getLength(prevPattern);
+        boolean completed;
+        switch (prevType) {
+            case SINGLE:
+                completed = groups(counts.atLeast1, 1, rank, visitor);
+                break;
+            case PAIR:
+                completed = groups(counts.atLeast2 & gradesUpTo(MAX_GRADE_OF_PAIR), 2, rank, visitor);
+                break;
+            case THREE:
+                completed = groups(counts.atLeast3, 3, rank, visitor);
+                break;
+            case THREE_WITH_ONE:
+                completed = withKickers(counts.atLeast3, 3, rank, counts.atLeast1, 1, 1, visitor);
+                break;
+            case THREE_WITH_PAIR:
+                completed = withKickers(counts.atLeast3, 3, rank,
+                        counts.atLeast2 & gradesUpTo(MAX_GRADE_OF_PAIR), 1, 2, visitor);
+                break;
+            case FOUR_WITH_TWO:
+                completed = fourWithTwo(counts, rank, visitor);
+                break;
+            case STRAIGHT:
+                completed = chains(counts.atLeast1, 1, length, rank, MAX_GRADE_OF_STRAIGHT, visitor);
+                break;
+            case STRAIGHT_PAIR:
+                completed = chains(counts.atLeast2, 2, length, rank, MAX_GRADE_OF_STRAIGHT, visitor);
+                break;
+            case AIRCRAFT:
+                completed = chains(counts.atLeast3, 3, length, rank, MAX_GRADE_OF_PAIR, visitor);
+                break;
+            case AIRCRAFT_WITH_WINGS:
+                completed = aircraftWithWings(counts, length, prevSize - 3 * length, rank, visitor);
+                break;
+            case BOMB:
+                return groups(counts.fours, 4, rank, visitor) && jokerBomb(counts, visitor);
+            default:
+                completed = true;
+                break;
+        }
+        return completed && groups(counts.fours, 4, 0, visitor) && jokerBomb(counts, visitor);
+    }
+
+    private static long[] generate(Key key) {
+        MoveList moves = new MoveList();
+        if (key.prevPattern == CardPattern.ILLEGAL) {
+            forEachMove(key.hand, moves);
+        } else {
+            forEachResponse(key.hand, key.prevPattern, key.prevSize, moves);
+        }
+        return moves.toArray();
+    }
+
+    /**
+     * 枚举单张、对子、三张、炸弹这类由同一等级组成的出牌
+     */
+    static boolean groups(int grades, int count, int minRankExclusive, MoveVisitor visitor) {
+        for (int rest = grades & ~gradesUpTo(minRankExclusive); rest != 0; rest &= rest - 1) {
+            int grade = Integer.numberOfTrailingZeros(rest);
+            if (!visitor.visit(GradeHistogram.unit(grade) * count)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 枚举顺子、连对、飞机这类连续等级组成的出牌
+     *
+     * @param grades   牌数满足要求的等级
+     * @param length   连续的等级个数
+     * @param maxGrade 允许出现的最大等级
+     */
+    static boolean chains(int grades, int count, int length, int minRankExclusive, int maxGrade,
+                          MoveVisitor visitor) {
+        for (int high = Math.max(minRankExclusive + 1, length); high <= maxGrade; high++) {
+            int run = chainBits(high, length);
+            if ((grades & run) == run && !visitor.visit(chainHistogram(high, length, count))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 枚举三带一、三带一对这类主体加上带牌的出牌
+     *
+     * @param kickerGrades 可以作为带牌的等级
+     * @param kickers      带牌的等级个数
+     * @param perKicker    每个带牌等级的张数
+     */
+    static boolean withKickers(int bodyGrades, int bodyCount, int minRankExclusive,
+                               int kickerGrades, int kickers, int perKicker, MoveVisitor visitor) {
+        for (int rest = bodyGrades & ~gradesUpTo(minRankExclusive); rest != 0; rest &= rest - 1) {
+            int grade = Integer.numberOfTrailingZeros(rest);
+            long body = GradeHistogram.unit(grade) * bodyCount;
+            if (!combinations(body, kickerGrades & ~(1 << grade), kickers, perKicker, visitor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean fourWithTwo(Counts counts, int minRankExclusive, MoveVisitor visitor) {
+        for (int rest = counts.fours & ~gradesUpTo(minRankExclusive); rest != 0; rest &= rest - 1) {
+            int grade = Integer.numberOfTrailingZeros(rest);
+            long body = GradeHistogram.unit(grade) * 4;
+            int others = ~(1 << grade);
+            // 带两张单牌，或者带一对
+            if (!combinations(body, counts.atLeast1 & others, 2, 1, visitor)
+                    || !combinations(body, counts.atLeast2 & others & gradesUpTo(MAX_GRADE_OF_PAIR), 1, 2, visitor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 枚举飞机带翅膀
+     *
+     * @param wingCards 翅膀的总张数，翅膀要么都是单张，要么都是对子
+     */
+    static boolean aircraftWithWings(Counts counts, int length, int wingCards, int minRankExclusive,
+                                     MoveVisitor visitor) {
+        if (wingCards <= 0) {
+            return true;
+        }
+        for (int high = Math.max(minRankExclusive + 1, length); high <= MAX_GRADE_OF_PAIR; high++) {
+            int run = chainBits(high, length);
+            if ((counts.atLeast3 & run) != run) {
+                continue;
+            }
+            long body = chainHistogram(high, length, 3);
+            if (!combinations(body, counts.atLeast1 & ~run, wingCards, 1, visitor)) {
+                return false;
+            }
+            if (wingCards % 2 == 0 && !combinations(body,
+                    counts.atLeast2 & ~run & gradesUpTo(MAX_GRADE_OF_PAIR), wingCards / 2, 2, visitor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean jokerBomb(Counts counts, MoveVisitor visitor) {
+        int jokers = (1 << SMALL_JOKER_GRADE) | (1 << BIG_JOKER_GRADE);
+        if ((counts.atLeast1 & jokers) != jokers) {
+            return true;
+        }
+        return visitor.visit(GradeHistogram.unit(SMALL_JOKER_GRADE) + GradeHistogram.unit(BIG_JOKER_GRADE));
+    }
+
+    /**
+     * 从候选等级中按照从小到大的顺序选出 k 个等级，每个等级取 perGrade 张加入 base
+     */
+    static boolean combinations(long base, int candidates, int k, int perGrade, MoveVisitor visitor) {
+        if (k == 0) {
+            return visitor.visit(base);
+        }
+        if (Integer.bitCount(candidates) < k) {
+            return true;
+        }
+        for (int rest = candidates; Integer.bitCount(rest) >= k; rest &= rest - 1) {
+            int grade = Integer.numberOfTrailingZeros(rest);
+            if (!combinations(base + GradeHistogram.unit(grade) * perGrade, rest & (rest - 1), k - 1,
+                    perGrade, visitor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 以 high 为最大等级、长度为 length 的连续等级位图
+     */
+    static int chainBits(int high, int length) {
+        return ((1 << (high + 1)) - 1) & ~((1 << (high - length + 1)) - 1);
+    }
+
+    static long chainHistogram(int high, int length, int count) {
+        long histogram = GradeHistogram.EMPTY;
+        for (int grade = high - length + 1; grade <= high; grade++) {
+            histogram += GradeHistogram.unit(grade) * count;
+        }
+        return histogram;
+    }
+
+    /**
+     * 等级 1 ~ grade 的位图
+     */
+    static int gradesUpTo(int grade) {
+        return (1 << (grade + 1)) - 2;
+    }
+
+    /**
+     * 按牌数统计的等级位图，第 g 位代表等级 g
+     */
+    static final class Counts {
+
+        final int atLeast1;
+        final int atLeast2;
+        final int atLeast3;
+        final int fours;
+
+        Counts(long histogram) {
+            int one = 0, two = 0, three = 0, four = 0;
+            for (int grade = GradeHistogram.MIN_GRADE; grade <= GradeHistogram.MAX_GRADE; grade++) {
+                int count = GradeHistogram.count(histogram, grade);
+                if (count >= 1) one |= 1 << grade;
+                if (count >= 2) two |= 1 << grade;
+                if (count >= 3) three |= 1 << grade;
+                if (count >= 4) four |= 1 << grade;
+            }
+            this.atLeast1 = one;
+            this.atLeast2 = two;
+            this.atLeast3 = three;
+            this.fours = four;
+        }
+
+        Counts(CombinationIndex index) {
+            this.atLeast1 = index.atLeast(1);
+            this.atLeast2 = index.atLeast(2);
+            this.atLeast3 = index.atLeast(3);
+            this.fours = index.bombs();
+        }
+    }
+
+    /**
+     * 缓存的键，上家牌型为 {@link CardPattern#ILLEGAL} 时代表自由出牌
+     */
+    private static final class Key {
+
+        final long hand;
+        final int prevPattern;
+        final int prevSize;
+
+        Key(long hand, int prevPattern, int prevSize) {
+            this.hand = hand;
+            this.prevPattern = prevPattern;
+            this.prevSize = prevSize;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hand == key.hand && prevPattern == key.prevPattern && prevSize == key.prevSize;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hand * 31 + prevPattern) * 31 + prevSize;
+        }
+    }
+
+    static final class MoveList implements MoveVisitor {
+
+        private long[] moves = new long[64];
+
+        private int size;
+
+        @Override
+        public boolean visit(long move) {
+            if (size == moves.length) {
+                moves = Arrays.copyOf(moves, size * 2);
+            }
+            moves[size++] = move;
+            return true;
+        }
+
+        long[] toArray() {
+            return size == 0 ? NO_MOVES : Arrays.copyOf(moves, size);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package site.pushy.landlords.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 预先生成的牌型表，将所有合法出牌的等级直方图映射到对应的牌型
+ * <p>
+ * 一手牌最多 20 张，所有合法的出牌组合可以离线穷举出来（见 {@link #generate()}），
+ * 运行时从 classpath 下的二进制资源 {@value #RESOURCE} 加载一次，
+ * 之后判断牌型只需要一次开放寻址的哈希查找
+ *
+ * @see CardPattern
+ * @see GradeHistogram
+ */
+public final class PatternTable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatternTable.class.getSimpleName());
+
+    /**
+     * 牌型表的资源文件
+     */
+    public static final String RESOURCE = "/card-patterns.bin";
+
+    /**
+     * 资源文件格式的版本，牌型规则变化后需要同时修改版本并重新生成资源文件
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * 一次出牌最多的张数，即地主的全部手牌
+     */
+    public static final int MAX_CARDS = 20;
+
+    /**
+     * 按直方图从小到大排列的所有合法出牌，用于序列化
+     */
+    private final long[] histograms;
+
+    private final int[] patterns;
+
+    /**
+     * 开放寻址哈希表，键为 0 代表空槽（空的直方图不是合法出牌）
+     */
+    private final long[] keys;
+
+    private final int[] values;
+
+    private final int mask;
+
+    private PatternTable(long[] histograms, int[] patterns) {
+        this.histograms = histograms;
+        this.patterns = patterns;
+        int capacity = Integer.highestOneBit(Math.max(histograms.length, 1) * 2) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < histograms.length; i++) {
+            int slot = slot(histograms[i]);
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = histograms[i];
+            values[slot] = patterns[i];
+        }
+    }
+
+    /**
+     * 标准斗地主规则的牌型表
+     */
+    public static PatternTable standard() {
+        return Holder.STANDARD;
+    }
+
+    /**
+     * 查找直方图对应的牌型，不是合法出牌时返回 {@link CardPattern#ILLEGAL}
+     */
+    public int lookup(long histogram) {
+        if (histogram == GradeHistogram.EMPTY) {
+            return CardPattern.ILLEGAL;
+        }
+        for (int slot = slot(histogram); ; slot = (slot + 1) & mask) {
+            long key = keys[slot];
+            if (key == histogram) {
+                return values[slot];
+            }
+            if (key == 0) {
+                return CardPattern.ILLEGAL;
+            }
+        }
+    }
+
+    /**
+     * 合法出牌的数量
+     */
+    public int size() {
+        return histograms.length;
+    }
+
+    /**
+     * 按直方图从小到大的顺序获取第 index 个合法出牌的直方图
+     */
+    public long histogramAt(int index) {
+        return histograms[index];
+    }
+
+    public int patternAt(int index) {
+        return patterns[index];
+    }
+
+    private int slot(long histogram) {
+        return (int) ((histogram * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+    }
+
+    /**
+     * 穷举所有合法的出牌，牌型由 {@link CardPattern#classify(long)} 判定
+     * <p>
+     * 6 张以内的组合直接穷举；超过 6 张的合法出牌只可能是顺子、连对、飞机或者飞机带翅膀，
+     * 因此只需要穷举连续等级上的单张、对子、三张，以及三张再带上任意一组单张或对子
+     */
+    public static PatternTable generate() {
+        Builder builder = new Builder();
+        enumerateSmall(builder, GradeHistogram.MIN_GRADE, GradeHistogram.EMPTY, 6);
+        for (int count = 1; count <= 3; count++) {
+            for (int low = GradeHistogram.MIN_GRADE; low <= 13; low++) {
+                long run = GradeHistogram.EMPTY;
+                for (int high = low; high <= 13; high++) {
+                    run += GradeHistogram.unit(high) * count;
+                    if (count == 3) {
+                        enumerateWings(builder, run, low, high);
+                    } else {
+                        builder.accept(run);
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static void enumerateSmall(Builder builder, int grade, long histogram, int left) {
+        if (grade > GradeHistogram.MAX_GRADE) {
+            builder.accept(histogram);
+            return;
+        }
+        int max = Math.min(grade >= 14 ? 1 : 4, left);
+        for (int count = 0; count <= max; count++) {
+            enumerateSmall(builder, grade + 1, histogram + GradeHistogram.unit(grade) * count, left - count);
+        }
+    }
+
+    private static void enumerateWings(Builder builder, long run, int low, int high) {
+        int runBits = ((1 << (high + 1)) - 1) & ~((1 << low) - 1);
+        for (int wings = 0; wings < (1 << (GradeHistogram.MAX_GRADE + 1)); wings += 2) {
+            if ((wings & runBits) != 0) {
+                continue;
+            }
+            long singles = run, pairs = run;
+            for (int rest = wings; rest != 0; rest &= rest - 1) {
+                long unit = GradeHistogram.unit(Integer.numberOfTrailingZeros(rest));
+                singles += unit;
+                pairs += unit * 2;
+            }
+            builder.accept(singles);
+            builder.accept(pairs);
+        }
+    }
+
+    /**
+     * 写出为二进制资源：GZIP 压缩的版本号、数量，以及按直方图排序后的差值（变长编码）和牌型
+     */
+    public void write(OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out);
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(gzip));
+        data.writeInt(VERSION);
+        data.writeInt(histograms.length);
+        long previous = 0;
+        for (int i = 0; i < histograms.length; i++) {
+            Varint.writeLong(data, histograms[i] - previous);
+            previous = histograms[i];
+            data.writeByte(patterns[i] >>> 16);
+            data.writeShort(patterns[i] & 0xFFFF);
+        }
+        data.flush();
+        gzip.finish();
+    }
+
+    public static PatternTable read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)));
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("牌型表版本不匹配 => " + version);
+        }
+        int size = data.readInt();
+        long[] histograms = new long[size];
+        int[] patterns = new int[size];
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            previous += Varint.readLong(data);
+            histograms[i] = previous;
+            patterns[i] = data.readUnsignedByte() << 16 | data.readUnsignedShort();
+        }
+        return new PatternTable(histograms, patterns);
+    }
+
+    private static PatternTable load() {
+        try (InputStream in = PatternTable.class.getResourceAsStream(RESOURCE)) {
+            if (in != null) {
+                return read(in);
+            }
+            logger.warn("未找到牌型表资源 {}，改为在启动时生成", RESOURCE);
+        } catch (IOException e) {
+            logger.warn("加载牌型表资源 {} 失败，改为在启动时生成", RESOURCE, e);
+        }
+        return generate();
+    }
+
+    /**
+     * 重新生成牌型表资源文件，参数为输出文件的路径，例如 src/main/resources/card-patterns.bin
+     */
+    public static void main(String[] args) throws IOException {
+        PatternTable table = generate();
+        try (OutputStream out = new FileOutputStream(args[0])) {
+            table.write(out);
+        }
+        System.out.println("生成牌型表完成，共 " + table.size() + " 种出牌");
+    }
+
+    private static class Holder {
+        private static final PatternTable STANDARD = load();
+    }
+
+    /**
+     * 收集合法出牌，重复的直方图只保留一个
+     */
+    private static class Builder {
+
+        private long[] histograms = new long[1024];
+
+        private int size;
+
+        void accept(long histogram) {
+            if (GradeHistogram.size(histogram) > MAX_CARDS || CardPattern.classify(histogram) == CardPattern.ILLEGAL) {
+                return;
+            }
+            if (size == histograms.length) {
+                histograms = Arrays.copyOf(histograms, size * 2);
+            }
+            histograms[size++] = histogram;
+        }
+
+        PatternTable build() {
+            long[] sorted = Arrays.stream(histograms, 0, size).sorted().distinct().toArray();
+            int[] patterns = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                patterns[i] = CardPattern.classify(sorted[i]);
+            }
+            return new PatternTable(sorted, patterns);
+        }
+    }
+}
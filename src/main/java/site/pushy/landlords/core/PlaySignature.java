@@ -0,0 +1,114 @@
+package site.pushy.landlords.core;
+
+import site.pushy.landlords.core.enums.TypeEnum;
+import site.pushy.landlords.pojo.Card;
+
+import java.util.List;
+
+/**
+ * 出牌签名，一手合法的出牌在校验时被归约为一个不可变的 long，之后比较大小只需要整数运算
+ * <p>
+ * 签名的布局：
+ * <pre>
+ *   bit 32 ~ 33  炸弹级别，0 为普通牌，1 为炸弹，2 为王炸
+ *   bit 24 ~ 31  张数
+ *   bit  0 ~ 23  牌型，与 {@link CardPattern} 的布局相同（类型、长度、主牌等级）
+ * </pre>
+ * 主牌等级位于最低位，因此除主牌等级外其余位都相同的两个签名可以直接比较数值大小
+ *
+ * @see CardPattern
+ */
+public final class PlaySignature {
+
+    /**
+     * 不合法的出牌，也用于表示还没有人出牌
+     */
+    public static final long NONE = 0;
+
+    public static final int NOT_BOMB = 0;
+    public static final int BOMB = 1;
+    public static final int JOKER_BOMB = 2;
+
+    private static final int SIZE_SHIFT = 24;
+    private static final int BOMB_CLASS_SHIFT = 32;
+    private static final int PATTERN_MASK = 0xFFFFFF;
+
+    private PlaySignature() {
+    }
+
+    /**
+     * 计算一组牌的签名，不合法时返回 {@link #NONE}
+     */
+    public static long of(List<Card> cards) {
+        if (cards == null || cards.isEmpty()) {
+            return NONE;
+        }
+        long histogram = GradeHistogram.of(cards);
+        return of(PatternTable.standard().lookup(histogram), cards.size());
+    }
+
+    public static long of(Hand hand) {
+        return of(PatternTable.standard().lookup(hand.getHistogram()), hand.size());
+    }
+
+    /**
+     * 按照标准规则计算等级直方图的签名，不合法时返回 {@link #NONE}
+     */
+    public static long of(long histogram) {
+        return of(PatternTable.standard().lookup(histogram), GradeHistogram.size(histogram));
+    }
+
+    /**
+     * 由牌型和张数组成签名
+     */
+    public static long of(int pattern, int size) {
+        TypeEnum type = CardPattern.getType(pattern);
+        if (type == null) {
+            return NONE;
+        }
+        int bombClass = type == TypeEnum.JOKER_BOMB ? JOKER_BOMB : type == TypeEnum.BOMB ? BOMB : NOT_BOMB;
+        return (long) bombClass << BOMB_CLASS_SHIFT | (long) size << SIZE_SHIFT | pattern;
+    }
+
+    /**
+     * 判断签名为 my 的出牌能否管住签名为 prev 的出牌
+     * <p>
+     * 炸弹级别更高即可出牌；级别相同时类型、张数、长度都必须相同，并且主牌等级更大
+     */
+    public static boolean beats(long my, long prev) {
+        if (my == NONE || prev == NONE) {
+            return false;
+        }
+        if ((my >>> 8) == (prev >>> 8)) {
+            return my > prev;
+        }
+        return getBombClass(my) > getBombClass(prev);
+    }
+
+    public static TypeEnum getType(long signature) {
+        return CardPattern.getType(getPattern(signature));
+    }
+
+    public static int getRank(long signature) {
+        return CardPattern.getRank(getPattern(signature));
+    }
+
+    public static int getLength(long signature) {
+        return CardPattern.getLength(getPattern(signature));
+    }
+
+    public static int getSize(long signature) {
+        return (int) (signature >>> SIZE_SHIFT) & 0xFF;
+    }
+
+    public static int getBombClass(long signature) {
+        return (int) (signature >>> BOMB_CLASS_SHIFT) & 0x3;
+    }
+
+    /**
+     * 获取签名中的牌型，见 {@link CardPattern}
+     */
+    public static int getPattern(long signature) {
+        return (int) signature & PATTERN_MASK;
+    }
+}
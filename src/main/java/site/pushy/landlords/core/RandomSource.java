@@ -0,0 +1,35 @@
+package site.pushy.landlords.core;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 洗牌使用的随机数来源
+ * <p>
+ * {@link #threadLocal()} 使用当前线程的 {@link ThreadLocalRandom}，多个房间同时开局时互不竞争；
+ * 需要复现某一局的发牌时使用 {@link #seeded(long)}，对局中的发牌都需要复现，因此
+ * {@link CardDistribution} 的默认构造方法使用后者（种子仍然取自 ThreadLocalRandom）
+ */
+@FunctionalInterface
+public interface RandomSource {
+
+    /**
+     * 返回 [0, bound) 之间均匀分布的随机整数
+     */
+    int nextInt(int bound);
+
+    /**
+     * 每次调用都使用调用线程自己的 ThreadLocalRandom
+     */
+    static RandomSource threadLocal() {
+        return bound -> ThreadLocalRandom.current().nextInt(bound);
+    }
+
+    /**
+     * 由种子确定的随机数序列，同一个种子总是得到相同的序列，不是线程安全的
+     */
+    static RandomSource seeded(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        return random::nextInt;
+    }
+}
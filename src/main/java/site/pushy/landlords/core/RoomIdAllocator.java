@@ -0,0 +1,121 @@
+package site.pushy.landlords.core;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Queue;
+import java.util.SplittableRandom;
+
+/**
+ * 六位数房间号的分配器，分配和回收都是 O(1)，不会产生重复的房间号
+ * <p>
+ * 房间号空间 100000 ~ 999999 共 90 万个，第 n 次新分配的房间号是 n 经过一个带随机密钥的置换得到的，
+ * 因此从未使用过的房间号不会重复，相邻分配的房间号之间也没有规律。
+ * 置换是 20 位的 4 轮 Feistel 网络，结果超出房间号空间时继续置换直到落入空间内（cycle walking），平均置换不到 1.2 次。
+ * <p>
+ * 解散的房间号进入先进先出的回收队列，全新的房间号用完后才从队列里取出，
+ * 让同一个房间号尽可能晚地被复用，避免玩家拿着旧房间号进入新房间
+ */
+public final class RoomIdAllocator {
+
+    public static final int MIN_ID = 100000;
+
+    public static final int MAX_ID = 999999;
+
+    private static final int CAPACITY = MAX_ID - MIN_ID + 1;
+
+    private static final int HALF_BITS = 10;
+
+    private static final int HALF_MASK = (1 << HALF_BITS) - 1;
+
+    private static final int ROUNDS = 4;
+
+    private final int[] keys = new int[ROUNDS];
+
+    /**
+     * 已经分配过的全新房间号数量，即下一次置换的输入
+     */
+    private int next;
+
+    private final Queue<Integer> released = new ArrayDeque<>();
+
+    /**
+     * 正在使用的房间号，下标为房间号 - MIN_ID
+     */
+    private final BitSet used = new BitSet(CAPACITY);
+
+    private int size;
+
+    public RoomIdAllocator() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * @param seed 决定置换的密钥，相同的种子分配的房间号序列相同
+     */
+    public RoomIdAllocator(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < ROUNDS; i++) {
+            keys[i] = random.nextInt();
+        }
+    }
+
+    /**
+     * 分配一个没有在使用的房间号
+     *
+     * @throws IllegalStateException 所有的房间号都在使用中
+     */
+    public synchronized int allocate() {
+        int offset;
+        if (next < CAPACITY) {
+            offset = next++;
+            do {
+                offset = permute(offset);
+            } while (offset >= CAPACITY);
+        } else if (!released.isEmpty()) {
+            offset = released.poll();
+        } else {
+            throw new IllegalStateException("房间号已经全部被使用");
+        }
+        used.set(offset);
+        size++;
+        return MIN_ID + offset;
+    }
+
+    /**
+     * 回收房间号，之后可以再次分配
+     *
+     * @throws IllegalArgumentException 房间号不在使用中
+     */
+    public synchronized void release(int id) {
+        int offset = id - MIN_ID;
+        if (offset < 0 || offset >= CAPACITY || !used.get(offset)) {
+            throw new IllegalArgumentException("房间号不在使用中 => " + id);
+        }
+        used.clear(offset);
+        size--;
+        released.add(offset);
+    }
+
+    /**
+     * 正在使用的房间号数量
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 20 位整数上的置换，输入小于 2^20 时输出也小于 2^20
+     */
+    private int permute(int value) {
+        int left = value >>> HALF_BITS;
+        int right = value & HALF_MASK;
+        for (int key : keys) {
+            int mixed = (right * 0x9E3779B1 + key) * 0x85EBCA6B;
+            int f = (mixed ^ (mixed >>> 15)) & HALF_MASK;
+            int newRight = left ^ f;
+            left = right;
+            right = newRight;
+        }
+        return (left << HALF_BITS) | right;
+    }
+}
@@ -0,0 +1,104 @@
+package site.pushy.landlords.core;
+
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 房间的邮箱，房间内所有修改状态的命令都提交到邮箱中，按照提交的顺序逐个执行
+ * <p>
+ * 所有房间的邮箱共用一个线程池，同一个邮箱同一时刻最多只有一个线程在执行它的命令，
+ * 因此命令内可以不加锁地读写房间和玩家的状态。前后两次执行之间通过 {@code scheduled} 标志的读写建立 happens-before，
+ * 即使前后两条命令在不同的线程上执行，后一条命令也能看到前一条命令的全部修改。
+ * 每次最多连续执行 {@link #BATCH_SIZE} 条命令后把线程让给其他房间，避免一个繁忙的房间饿死其他房间
+ * <p>
+ * 在命令内向同一个邮箱提交的命令直接在当前线程执行，保证「检查状态后再修改」的组合命令是原子的，也不会因为等待自己而死锁
+ */
+public final class RoomMailbox {
+
+    private static final int BATCH_SIZE = 64;
+
+    /**
+     * 当前线程正在执行其命令的邮箱
+     */
+    private static final ThreadLocal<RoomMailbox> CURRENT = new ThreadLocal<>();
+
+    private final Executor executor;
+
+    private final Queue<Command<?>> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    public RoomMailbox(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 提交一条命令，命令抛出的异常原样作为返回的 Future 的失败原因
+     * <p>
+     * 线程池已经关闭时，返回的 Future 以 {@link RejectedExecutionException} 失败
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> callable) {
+        Command<T> command = new Command<>(callable);
+        if (CURRENT.get() == this) {
+            command.run();
+            return command.future;
+        }
+        queue.add(command);
+        schedule();
+        return command.future;
+    }
+
+    private void schedule() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            for (Command<?> command = queue.poll(); command != null; command = queue.poll()) {
+                command.future.completeExceptionally(e);
+            }
+            scheduled.set(false);
+        }
+    }
+
+    private void drain() {
+        CURRENT.set(this);
+        try {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Command<?> command = queue.poll();
+                if (command == null) {
+                    break;
+                }
+                command.run();
+            }
+        } finally {
+            CURRENT.remove();
+            scheduled.set(false);
+        }
+        // 清除标志之前提交的命令不会再触发调度，由这里补上
+        if (!queue.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private static final class Command<T> {
+
+        private final Callable<T> callable;
+
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Command(Callable<T> callable) {
+            this.callable = callable;
+        }
+
+        void run() {
+            try {
+                future.complete(callable.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package site.pushy.landlords.core;
+
+import site.pushy.landlords.pojo.DO.User;
+import site.pushy.landlords.pojo.Player;
+import site.pushy.landlords.pojo.Room;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按房间号分片的房间注册表，记录所有的房间以及每个用户所在的房间
+ * <p>
+ * 房间号决定房间所在的分片，创建、加入、退出、解散房间都只持有该分片的锁，
+ * 在同一个临界区内修改用户所在的房间与房间的成员，因此用户不会指向已经解散的房间，房间的成员也不会缺少对应的用户映射。
+ * 用户所在的房间用一张全局的 {@link ConcurrentHashMap} 记录，只在房间所在分片的锁内修改，
+ * 用 {@code putIfAbsent} 保证同一个用户同时加入两个房间时只有一个能成功
+ * <p>
+ * 查询不加锁，每个分片维护自己的房间数、玩家数和座位数，读取大厅的房间数、空座位数以及每个分片的负载都是 O(分片数)
+ */
+public final class RoomRegistry {
+
+    private final Shard[] shards;
+
+    private final int mask;
+
+    /**
+     * 用户 id => 房间号
+     */
+    private final Map<String, String> userRooms = new ConcurrentHashMap<>();
+
+    /**
+     * @param shardCount 分片数，必须是 2 的幂
+     */
+    public RoomRegistry(int shardCount) {
+        if (shardCount <= 0 || Integer.bitCount(shardCount) != 1) {
+            throw new IllegalArgumentException("分片数必须是 2 的幂 => " + shardCount);
+        }
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+        mask = shardCount - 1;
+    }
+
+    /**
+     * 登记新创建的房间，房间内已经有的玩家（房主）同时登记为在该房间内
+     *
+     * @return 房间内的某个用户已经在其他房间时返回 false，不登记房间
+     * @throws IllegalStateException 房间号已经被占用
+     */
+    public boolean register(Room room) {
+        Shard shard = shardOf(room.getId());
+        shard.lock.lock();
+        try {
+            if (shard.rooms.containsKey(room.getId())) {
+                throw new IllegalStateException("房间号已经被占用 => " + room.getId());
+            }
+            List<String> claimed = new ArrayList<>();
+            for (User user : room.getUserList()) {
+                if (userRooms.putIfAbsent(user.getId(), room.getId()) != null) {
+                    claimed.forEach(userRooms::remove);
+                    return false;
+                }
+                claimed.add(user.getId());
+            }
+            shard.rooms.put(room.getId(), room);
+            shard.roomCount++;
+            shard.seatCount += room.getRuleVariant().getSeats();
+            shard.playerCount += room.getPlayerList().size();
+            return true;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * 用户加入房间，占用座位
+     *
+     * @return 用户已经在某个房间内时返回 false，房间不变
+     * @throws IllegalStateException 房间已经解散
+     */
+    public boolean join(Room room, Player player) {
+        Shard shard = shardOf(room.getId());
+        String userId = player.getUser().getId();
+        shard.lock.lock();
+        try {
+            if (shard.rooms.get(room.getId()) != room) {
+                throw new IllegalStateException("房间已经解散 => " + room.getId());
+            }
+            if (userRooms.putIfAbsent(userId, room.getId()) != null) {
+                return false;
+            }
+            room.addUser(player.getUser());
+            room.addPlayer(player);
+            shard.playerCount++;
+            return true;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * 用户退出房间，最后一个用户退出后解散房间
+     *
+     * @return 房间是否被解散
+     */
+    public boolean leave(Room room, String userId) {
+        Shard shard = shardOf(room.getId());
+        shard.lock.lock();
+        try {
+            userRooms.remove(userId, room.getId());
+            if (shard.rooms.get(room.getId()) != room) {
+                return false;
+            }
+            if (room.getPlayerByUserId(userId) != null) {
+                shard.playerCount--;
+            }
+            room.removeUser(userId);
+            room.removePlayer(userId);
+            if (!room.getPlayerList().isEmpty()) {
+                return false;
+            }
+            shard.rooms.remove(room.getId());
+            shard.roomCount--;
+            shard.seatCount -= room.getRuleVariant().getSeats();
+            return true;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * @return 不存在时为 null
+     */
+    public Room get(String roomId) {
+        return shardOf(roomId).rooms.get(roomId);
+    }
+
+    /**
+     * @return 用户不在房间内时为 null
+     */
+    public String getUserRoomId(String userId) {
+        return userRooms.get(userId);
+    }
+
+    /**
+     * 用户所在的房间，用户不在房间内或者读取期间房间刚好解散时为 null
+     */
+    public Room getUserRoom(String userId) {
+        String roomId = userRooms.get(userId);
+        return roomId == null ? null : get(roomId);
+    }
+
+    /**
+     * 所有房间的快照，不保证与并发的修改一致
+     */
+    public List<Room> values() {
+        List<Room> rooms = new ArrayList<>(size());
+        for (Shard shard : shards) {
+            rooms.addAll(shard.rooms.values());
+        }
+        return rooms;
+    }
+
+    /**
+     * 房间数
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.roomCount;
+        }
+        return size;
+    }
+
+    /**
+     * 在房间内的玩家数
+     */
+    public int playerCount() {
+        int count = 0;
+        for (Shard shard : shards) {
+            count += shard.playerCount;
+        }
+        return count;
+    }
+
+    /**
+     * 所有房间的空座位数
+     */
+    public int freeSeats() {
+        int count = 0;
+        for (Shard shard : shards) {
+            count += shard.seatCount - shard.playerCount;
+        }
+        return count;
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * 某个分片内的房间数，用于观察分片的负载是否均衡
+     */
+    public int shardSize(int shard) {
+        return shards[shard].roomCount;
+    }
+
+    private Shard shardOf(String roomId) {
+        int h = roomId.hashCode();
+        return shards[(h ^ (h >>> 16)) & mask];
+    }
+
+    private static final class Shard {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+
+        // 计数器只在分片的锁内修改，volatile 保证不加锁读取时能看到最新的值
+        private volatile int roomCount;
+
+        private volatile int playerCount;
+
+        private volatile int seatCount;
+    }
+}
@@ -0,0 +1,396 @@
+package site.pushy.landlords.core;
+
+import site.pushy.landlords.core.MoveGenerator.MoveVisitor;
+import site.pushy.landlords.core.enums.RuleVariantEnum;
+
+import java.util.SplittableRandom;
+
+/**
+ * 规则集，即一种玩法（见 {@link RuleVariantEnum}）对应的牌型判断和出牌生成
+ * <p>
+ * 新增玩法不会在标准玩法的路径上增加分支：标准玩法直接使用 {@link PatternTable#standard()}
+ * 和带缓存的 {@link MoveGenerator}，其他玩法各自实现。
+ * 癞子玩法每局指定一个 3 ~ 2 之间的等级为癞子，癞子可以当作任意非王的牌使用，
+ * 打出时按照能组成的最大牌型计算，管牌时按照能管住上家的最小牌型计算
+ * <p>
+ * 规则集不可变，可以在多个线程、多个房间之间共享
+ */
+public abstract class RuleSet {
+
+    /**
+     * 最大的非王牌等级，即 2
+     */
+    private static final int MAX_NORMAL_GRADE = 13;
+
+    private final RuleVariantEnum variant;
+
+    RuleSet(RuleVariantEnum variant) {
+        this.variant = variant;
+    }
+
+    /**
+     * 标准斗地主规则
+     */
+    public static RuleSet standard() {
+        return Standard.INSTANCE;
+    }
+
+    /**
+     * 以某个等级为癞子的规则
+     *
+     * @param wildGrade 1 ~ 13，即 3 ~ 2
+     */
+    public static RuleSet laizi(int wildGrade) {
+        if (wildGrade < GradeHistogram.MIN_GRADE || wildGrade > MAX_NORMAL_GRADE) {
+            throw new IllegalArgumentException("癞子的等级错误 => " + wildGrade);
+        }
+        return Laizi.Holder.INSTANCES[wildGrade - 1];
+    }
+
+    /**
+     * 一局游戏使用的规则集，癞子玩法的癞子由发牌的种子决定，记录下种子即可复现
+     */
+    public static RuleSet forGame(RuleVariantEnum variant, long seed) {
+        switch (variant) {
+            case LAIZI:
+                return laizi(new SplittableRandom(~seed).nextInt(MAX_NORMAL_GRADE) + 1);
+            default:
+                return standard();
+        }
+    }
+
+    public RuleVariantEnum getVariant() {
+        return variant;
+    }
+
+    /**
+     * 一次出牌最多的张数，即地主的全部手牌
+     */
+    public int getMaxCards() {
+        return variant.getHandSize() + variant.getBottomSize();
+    }
+
+    /**
+     * 癞子的等级，没有癞子时为 0
+     */
+    public int getWildGrade() {
+        return 0;
+    }
+
+    /**
+     * 计算一手牌的签名（见 {@link PlaySignature}），不合法时返回 {@link PlaySignature#NONE}
+     *
+     * @param histogram 出牌的等级直方图
+     */
+    public abstract long signature(long histogram);
+
+    /**
+     * 计算管牌时的签名，管不住上家时返回 {@link PlaySignature#NONE}
+     *
+     * @param prevSignature 上家出牌的签名，自由出牌时为 {@link PlaySignature#NONE}
+     */
+    public long signature(long histogram, long prevSignature) {
+        long signature = signature(histogram);
+        if (prevSignature == PlaySignature.NONE || PlaySignature.beats(signature, prevSignature)) {
+            return signature;
+        }
+        return PlaySignature.NONE;
+    }
+
+    /**
+     * 枚举手牌中所有可以出的牌
+     *
+     * @return 是否完整地枚举完，访问者中途停止时返回 false
+     */
+    public abstract boolean forEachMove(long hand, MoveVisitor visitor);
+
+    /**
+     * 枚举手牌中所有可以管住上家的出牌
+     *
+     * @return 是否完整地枚举完，访问者中途停止时返回 false
+     */
+    public abstract boolean forEachResponse(long hand, long prevSignature, MoveVisitor visitor);
+
+    /**
+     * 判断手牌中是否有牌可以管住上家出的牌
+     */
+    public boolean hasResponse(long hand, long prevSignature) {
+        return !forEachResponse(hand, prevSignature, move -> false);
+    }
+
+    /**
+     * 与 {@link #hasResponse(long, long)} 相同，参数为玩家维护的组合索引
+     */
+    public boolean hasResponse(CombinationIndex index, long prevSignature) {
+        return hasResponse(index.getHistogram(), prevSignature);
+    }
+
+    @Override
+    public String toString() {
+        return "RuleSet(" + variant + ")";
+    }
+
+    /**
+     * 标准规则，牌型表和出牌生成都是共享的
+     */
+    private static final class Standard extends RuleSet {
+
+        private static final Standard INSTANCE = new Standard();
+
+        private Standard() {
+            super(RuleVariantEnum.STANDARD);
+        }
+
+        @Override
+        public long signature(long histogram) {
+            return PlaySignature.of(histogram);
+        }
+
+        @Override
+        public boolean forEachMove(long hand, MoveVisitor visitor) {
+            return MoveGenerator.forEachMove(hand, visitor);
+        }
+
+        @Override
+        public boolean forEachResponse(long hand, long prevSignature, MoveVisitor visitor) {
+            return MoveGenerator.forEachResponse(hand, PlaySignature.getPattern(prevSignature),
+                    PlaySignature.getSize(prevSignature), visitor);
+        }
+
+        @Override
+        public boolean hasResponse(CombinationIndex index, long prevSignature) {
+            return GradeComparison.hasHighGradeCards(index, prevSignature);
+        }
+    }
+
+    /**
+     * 癞子规则，直接使用标准规则的牌型表
+     * <p>
+     * 判断牌型时将手中的癞子换成预先列出的每一种替换方式（k 张癞子对应 13 个等级中可重复地取 k 个），
+     * 逐一在牌型表中查找。
+     * 枚举出牌时把每个非王等级的张数加上癞子的张数（最多 4 张）作为候选手牌，用标准的出牌生成枚举候选手牌中的出牌，
+     * 再用手中的牌组成每一手候选出牌、不足的部分用癞子补上，补不齐的丢弃；
+     * 管牌时只生成与上家牌型相同的候选和炸弹，不需要遍历整个牌型表
+     */
+    private static final class Laizi extends RuleSet {
+
+        private static final int MAX_WILDCARDS = 4;
+
+        /**
+         * 下标为癞子的张数，元素为癞子所有替换方式的等级直方图
+         */
+        private static final long[][] SUBSTITUTIONS = new long[MAX_WILDCARDS + 1][];
+
+        static {
+            for (int k = 0; k <= MAX_WILDCARDS; k++) {
+                MoveGenerator.MoveList list = new MoveGenerator.MoveList();
+                substitutions(list, GradeHistogram.MIN_GRADE, GradeHistogram.EMPTY, k);
+                SUBSTITUTIONS[k] = list.toArray();
+            }
+        }
+
+        private final PatternTable table = PatternTable.standard();
+
+        private final int wildGrade;
+
+        private Laizi(int wildGrade) {
+            super(RuleVariantEnum.LAIZI);
+            this.wildGrade = wildGrade;
+        }
+
+        private static void substitutions(MoveVisitor list, int grade, long histogram, int left) {
+            if (left == 0) {
+                list.visit(histogram);
+                return;
+            }
+            for (int g = grade; g <= MAX_NORMAL_GRADE; g++) {
+                substitutions(list, g, histogram + GradeHistogram.unit(g), left - 1);
+            }
+        }
+
+        @Override
+        public int getWildGrade() {
+            return wildGrade;
+        }
+
+        /**
+         * 所有解释中签名最大的一种，即炸弹优先，其次是牌型、长度、主牌等级更大的
+         */
+        @Override
+        public long signature(long histogram) {
+            int wildcards = GradeHistogram.count(histogram, wildGrade);
+            long natural = histogram - GradeHistogram.unit(wildGrade) * wildcards;
+            int size = GradeHistogram.size(histogram);
+            long best = PlaySignature.NONE;
+            for (long substitution : SUBSTITUTIONS[wildcards]) {
+                long signature = PlaySignature.of(table.lookup(natural + substitution), size);
+                if (signature > best) {
+                    best = signature;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * 所有能管住上家的解释中签名最小的一种
+         */
+        @Override
+        public long signature(long histogram, long prevSignature) {
+            if (prevSignature == PlaySignature.NONE) {
+                return signature(histogram);
+            }
+            int wildcards = GradeHistogram.count(histogram, wildGrade);
+            long natural = histogram - GradeHistogram.unit(wildGrade) * wildcards;
+            int size = GradeHistogram.size(histogram);
+            long best = PlaySignature.NONE;
+            for (long substitution : SUBSTITUTIONS[wildcards]) {
+                long signature = PlaySignature.of(table.lookup(natural + substitution), size);
+                if (PlaySignature.beats(signature, prevSignature) && (best == PlaySignature.NONE || signature < best)) {
+                    best = signature;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * 枚举的顺序与 {@link MoveGenerator#forEachMove} 相同，按候选出牌的牌型分组
+         */
+        @Override
+        public boolean forEachMove(long hand, MoveVisitor visitor) {
+            int wildcards = GradeHistogram.count(hand, wildGrade);
+            if (wildcards == 0) {
+                return MoveGenerator.forEachMove(hand, visitor);
+            }
+            long natural = hand - GradeHistogram.unit(wildGrade) * wildcards;
+            MoveSet visited = new MoveSet();
+            return MoveGenerator.forEachMove(candidates(natural, wildcards),
+                    move -> realize(natural, wildcards, move, visited, visitor));
+        }
+
+        /**
+         * 枚举的顺序与 {@link MoveGenerator#forEachResponse} 相同，按候选出牌从小到大，炸弹、王炸排在最后
+         */
+        @Override
+        public boolean forEachResponse(long hand, long prevSignature, MoveVisitor visitor) {
+            if (prevSignature == PlaySignature.NONE) {
+                return true;
+            }
+            int prevPattern = PlaySignature.getPattern(prevSignature);
+            int prevSize = PlaySignature.getSize(prevSignature);
+            int wildcards = GradeHistogram.count(hand, wildGrade);
+            if (wildcards == 0) {
+                return MoveGenerator.forEachResponse(hand, prevPattern, prevSize, visitor);
+            }
+            long natural = hand - GradeHistogram.unit(wildGrade) * wildcards;
+            MoveSet visited = new MoveSet();
+            return MoveGenerator.forEachResponse(candidates(natural, wildcards), prevPattern, prevSize,
+                    move -> realize(natural, wildcards, move, visited, visitor));
+        }
+
+        /**
+         * 候选手牌：每个非王等级的张数加上癞子的张数，最多 4 张，王的张数不变。
+         * 用癞子能组成的出牌一定是候选手牌中的出牌
+         */
+        private static long candidates(long natural, int wildcards) {
+            long candidates = natural;
+            for (int grade = GradeHistogram.MIN_GRADE; grade <= MAX_NORMAL_GRADE; grade++) {
+                int count = GradeHistogram.count(natural, grade);
+                candidates += GradeHistogram.unit(grade) * (Math.min(count + wildcards, 4) - count);
+            }
+            return candidates;
+        }
+
+        /**
+         * 组成一手候选出牌，组成的牌第一次出现时交给访问者
+         *
+         * @return 访问者是否继续枚举
+         */
+        private boolean realize(long natural, int wildcards, long move, MoveSet visited, MoveVisitor visitor) {
+            long actual = realize(natural, wildcards, move);
+            return actual == GradeHistogram.INVALID || !visited.add(actual) || visitor.visit(actual);
+        }
+
+        /**
+         * 用手中的牌组成一手出牌，优先使用非癞子的牌，不足的部分用癞子补上
+         *
+         * @return 实际打出的牌的等级直方图，无法组成时返回 {@link GradeHistogram#INVALID}
+         */
+        private long realize(long natural, int wildcards, long move) {
+            long actual = GradeHistogram.EMPTY;
+            int needed = 0;
+            for (int grade = GradeHistogram.MIN_GRADE; grade <= GradeHistogram.MAX_GRADE; grade++) {
+                int want = GradeHistogram.count(move, grade);
+                if (want == 0) {
+                    continue;
+                }
+                int have = GradeHistogram.count(natural, grade);
+                if (want > have) {
+                    if (grade > MAX_NORMAL_GRADE) {
+                        return GradeHistogram.INVALID;
+                    }
+                    needed += want - have;
+                    want = have;
+                }
+                actual += GradeHistogram.unit(grade) * want;
+            }
+            if (needed > wildcards) {
+                return GradeHistogram.INVALID;
+            }
+            return actual + GradeHistogram.unit(wildGrade) * needed;
+        }
+
+        /**
+         * 记录已经枚举过的出牌，开放寻址的哈希集合，直方图不会为 {@link GradeHistogram#EMPTY}，用 0 表示空槽
+         */
+        private static final class MoveSet {
+
+            private long[] slots = new long[64];
+
+            private int size;
+
+            /**
+             * @return 是否是第一次加入
+             */
+            boolean add(long move) {
+                if (size * 2 >= slots.length) {
+                    long[] old = slots;
+                    slots = new long[old.length * 2];
+                    for (long each : old) {
+                        if (each != GradeHistogram.EMPTY) {
+                            insert(each);
+                        }
+                    }
+                }
+                if (!insert(move)) {
+                    return false;
+                }
+                size++;
+                return true;
+            }
+
+            private boolean insert(long move) {
+                int mask = slots.length - 1;
+                int i = (int) ((move * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+                while (slots[i] != GradeHistogram.EMPTY) {
+                    if (slots[i] == move) {
+                        return false;
+                    }
+                    i = (i + 1) & mask;
+                }
+                slots[i] = move;
+                return true;
+            }
+        }
+
+        private static class Holder {
+
+            private static final Laizi[] INSTANCES = new Laizi[MAX_NORMAL_GRADE];
+
+            static {
+                for (int grade = GradeHistogram.MIN_GRADE; grade <= MAX_NORMAL_GRADE; grade++) {
+                    INSTANCES[grade - 1] = new Laizi(grade);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package site.pushy.landlords.core;
+
+import site.pushy.landlords.core.enums.TypeEnum;
+import site.pushy.landlords.pojo.Card;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 无界面的自我对局模拟器，用于规则引擎的吞吐量测试和长时间的稳定性测试
+ * <p>
+ * 每一局在内存中完成发牌、叫牌、出牌直到有人出完，三个玩家都是 {@link BotPlayer}。
+ * 每一手出牌都会用 {@link TypeJudgement} 重新判断牌型，并且用不依赖牌型表的方式（旧的牌型判断加上排序后比较主牌）
+ * 与上家比较，结果与规则引擎 {@link PlaySignature#beats} 不同时记为规则不一致；
+ * 每局结束后用 {@link GameRecord#replay()} 还原剩余的手牌，与模拟的结果不一致时记为规则不一致。
+ * 对局在所有核心上并行执行，最后汇总每秒对局数以及每种引擎调用的延迟分位数
+ * <p>
+ * 命令行参数：games=对局数 threads=线程数 seed=种子，例如
+ * <pre>
+ *   mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=site.pushy.landlords.core.SelfPlaySimulator -Djmh.args="games=100000"
+ * </pre>
+ */
+public class SelfPlaySimulator {
+
+    /**
+     * 统计延迟的引擎调用
+     */
+    public enum Call {
+
+        /**
+         * 洗牌、发牌
+         */
+        DEAL,
+
+        /**
+         * 机器人决定叫牌分数
+         */
+        BID,
+
+        /**
+         * 机器人决定出牌
+         */
+        DECIDE,
+
+        /**
+         * 计算出牌的签名，即判断牌型
+         */
+        JUDGE,
+
+        /**
+         * 与上家的出牌比较大小
+         */
+        COMPARE
+    }
+
+    /**
+     * 每个线程最多保留的规则不一致的描述
+     */
+    private static final int MAX_MISMATCH_DETAILS = 20;
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final int threads;
+
+    private final BotPlayer bot;
+
+    public SelfPlaySimulator(int threads, BotPlayer bot) {
+        this.threads = threads;
+        this.bot = bot;
+    }
+
+    /**
+     * 运行指定数量的对局，第 i 局的发牌由 seed 与 i 决定
+     */
+    public Report run(int games, long seed) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicInteger next = new AtomicInteger();
+        Queue<String> mismatches = new ConcurrentLinkedQueue<>();
+        List<Future<Worker>> futures = new ArrayList<>(threads);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    Worker worker = new Worker(mismatches);
+                    for (int game = next.getAndIncrement(); game < games; game = next.getAndIncrement()) {
+                        worker.play(seed + game * GOLDEN_GAMMA);
+                    }
+                    return worker;
+                }));
+            }
+            Report report = new Report();
+            for (Future<Worker> future : futures) {
+                report.merge(future.get());
+            }
+            report.elapsedNanos = System.nanoTime() - start;
+            report.mismatchDetails.addAll(mismatches);
+            return report;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("模拟对局异常", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 不使用牌型表的比较，作为规则引擎的对照：牌型由 {@link TypeJudgement} 逐一判断，
+     * 主牌为排序后张数最多的等级中最大的一个（飞机带翅膀的翅膀最多为对子，不会被当作主牌），
+     * 同一牌型之间要求张数和主牌的等级数都相同，主牌更大才能管住
+     */
+    static boolean legacyBeats(List<Card> cards, List<Card> prevCards) {
+        TypeEnum type = legacyType(cards);
+        TypeEnum prevType = legacyType(prevCards);
+        if (type == null || prevType == null || prevType == TypeEnum.JOKER_BOMB) {
+            return false;
+        }
+        if (type == TypeEnum.JOKER_BOMB || type == TypeEnum.BOMB && prevType != TypeEnum.BOMB) {
+            return true;
+        }
+        if (type != prevType || cards.size() != prevCards.size()) {
+            return false;
+        }
+        int[] main = mainGrade(cards);
+        int[] prevMain = mainGrade(prevCards);
+        return main[1] == prevMain[1] && main[0] > prevMain[0];
+    }
+
+    /**
+     * 炸弹优先，其余按照 {@link TypeEnum} 的顺序取第一个符合的牌型
+     */
+    private static TypeEnum legacyType(List<Card> cards) {
+        if (TypeJudgement.isJokerBomb(new ArrayList<>(cards))) {
+            return TypeEnum.JOKER_BOMB;
+        }
+        if (TypeJudgement.isBomb(new ArrayList<>(cards))) {
+            return TypeEnum.BOMB;
+        }
+        for (TypeEnum type : TypeEnum.values()) {
+            if (TypeJudgement.is(type, new ArrayList<>(cards))) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return 下标 0 为张数最多的等级中最大的等级值，下标 1 为张数最多的等级数
+     */
+    private static int[] mainGrade(List<Card> cards) {
+        List<Card> sorted = new ArrayList<>(cards);
+        CardUtils.sortCards(sorted);
+        int maxCount = 0;
+        int grade = 0;
+        int grades = 0;
+        for (int i = 0; i < sorted.size(); ) {
+            int j = i;
+            while (j < sorted.size() && sorted.get(j).getGradeValue() == sorted.get(i).getGradeValue()) {
+                j++;
+            }
+            int count = j - i;
+            if (count > maxCount) {
+                maxCount = count;
+                grades = 0;
+            }
+            if (count == maxCount) {
+                grade = sorted.get(i).getGradeValue();
+                grades++;
+            }
+            i = j;
+        }
+        return new int[]{grade, grades};
+    }
+
+    /**
+     * 单个线程内的对局，延迟统计只在本线程内累加，结束后再合并
+     */
+    private class Worker {
+
+        private final Latency[] latencies = new Latency[Call.values().length];
+
+        private final Queue<String> mismatches;
+
+        private int games;
+
+        private long turns;
+
+        private int mismatchCount;
+
+        Worker(Queue<String> mismatches) {
+            this.mismatches = mismatches;
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new Latency();
+            }
+        }
+
+        void play(long seed) {
+            long t = System.nanoTime();
+            CardDistribution distribution = new CardDistribution(seed);
+            distribution.refresh();
+            record(Call.DEAL, t);
+
+            Hand[] hands = new Hand[3];
+            for (int i = 0; i < 3; i++) {
+                hands[i] = distribution.getHand(i + 1);
+            }
+            // 从某个玩家开始依次叫牌，第一个叫牌的玩家成为地主，都不叫时由第一个玩家做地主
+            int first = (int) Math.floorMod(seed, 3L);
+            int landlord = first;
+            int score = 1;
+            for (int i = 0; i < 3; i++) {
+                int player = (first + i) % 3;
+                t = System.nanoTime();
+                int bid = bot.bid(hands[player]);
+                record(Call.BID, t);
+                if (bid > 0) {
+                    landlord = player;
+                    score = bid;
+                    break;
+                }
+            }
+            hands[landlord] = hands[landlord].addAll(distribution.getTopHand());
+            GameRecord gameRecord = new GameRecord(seed);
+            gameRecord.bid(landlord + 1, score);
+
+            int current = landlord;
+            int prePlayer = landlord;
+            long prevSignature = PlaySignature.NONE;
+            List<Card> prevCards = null;
+            while (true) {
+                boolean leading = prePlayer == current;
+                boolean partner = !leading && current != landlord && prePlayer != landlord;
+                int opponentCards = current == landlord
+                        ? Math.min(hands[(landlord + 1) % 3].size(), hands[(landlord + 2) % 3].size())
+                        : hands[landlord].size();
+                t = System.nanoTime();
+                Hand play = bot.play(hands[current], leading ? PlaySignature.NONE : prevSignature,
+                        partner, opponentCards);
+                record(Call.DECIDE, t);
+                turns++;
+                if (play.isEmpty()) {
+                    gameRecord.pass(current + 1);
+                    current = (current + 1) % 3;
+                    continue;
+                }
+
+                List<Card> cards = play.toCards();
+                t = System.nanoTime();
+                long signature = PlaySignature.of(cards);
+                record(Call.JUDGE, t);
+                TypeEnum type = PlaySignature.getType(signature);
+                if (type == null || !TypeJudgement.is(type, new ArrayList<>(cards))) {
+                    mismatch(seed, "牌型判断不一致 " + type + " " + cards);
+                }
+                if (!leading) {
+                    t = System.nanoTime();
+                    boolean beats = PlaySignature.beats(signature, prevSignature);
+                    record(Call.COMPARE, t);
+                    if (!beats || !legacyBeats(cards, prevCards)) {
+                        mismatch(seed, "比较大小不一致 " + cards + " => " + prevCards);
+                    }
+                }
+                gameRecord.play(current + 1, play);
+                hands[current] = hands[current].removeAll(play);
+                if (hands[current].isEmpty()) {
+                    break;
+                }
+                prevSignature = signature;
+                prevCards = cards;
+                prePlayer = current;
+                current = (current + 1) % 3;
+            }
+            if (!Arrays.equals(hands, gameRecord.replay())) {
+                mismatch(seed, "游戏记录还原的手牌不一致");
+            }
+            games++;
+        }
+
+        private void record(Call call, long startNanos) {
+            latencies[call.ordinal()].record(System.nanoTime() - startNanos);
+        }
+
+        private void mismatch(long seed, String detail) {
+            if (mismatchCount++ < MAX_MISMATCH_DETAILS) {
+                mismatches.add("seed=" + seed + " " + detail);
+            }
+        }
+    }
+
+    /**
+     * 模拟的结果
+     */
+    public static final class Report {
+
+        private final Latency[] latencies = new Latency[Call.values().length];
+
+        private final List<String> mismatchDetails = new ArrayList<>();
+
+        private int games;
+
+        private long turns;
+
+        private int mismatches;
+
+        private long elapsedNanos;
+
+        Report() {
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new Latency();
+            }
+        }
+
+        private void merge(Worker worker) {
+            games += worker.games;
+            turns += worker.turns;
+            mismatches += worker.mismatchCount;
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i].merge(worker.latencies[i]);
+            }
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        /**
+         * 机器人决策的次数，包括不出
+         */
+        public long getTurns() {
+            return turns;
+        }
+
+        /**
+         * 规则不一致的次数
+         */
+        public int getMismatches() {
+            return mismatches;
+        }
+
+        /**
+         * 规则不一致的描述，每个线程最多保留 20 条
+         */
+        public List<String> getMismatchDetails() {
+            return mismatchDetails;
+        }
+
+        public double getGamesPerSecond() {
+            return games * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * 某种调用延迟的分位数，单位：纳秒
+         *
+         * @param quantile 0 ~ 1 之间的分位
+         */
+        public long getLatency(Call call, double quantile) {
+            return latencies[call.ordinal()].quantile(quantile);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(String.format("对局数: %d, 耗时: %.2f s, 每秒对局数: %.1f, 决策次数: %d, 规则不一致: %d%n",
+                    games, elapsedNanos / 1e9, getGamesPerSecond(), turns, mismatches));
+            builder.append(String.format("%-8s %10s %10s %10s %10s %12s%n", "调用", "p50(ns)", "p99(ns)",
+                    "p99.9(ns)", "max(ns)", "次数"));
+            for (Call call : Call.values()) {
+                Latency latency = latencies[call.ordinal()];
+                builder.append(String.format("%-8s %10d %10d %10d %10d %12d%n", call,
+                        latency.quantile(0.5), latency.quantile(0.99), latency.quantile(0.999),
+                        latency.max, latency.count));
+            }
+            for (String detail : mismatchDetails) {
+                builder.append(detail).append(System.lineSeparator());
+            }
+            return builder.toString();
+        }
+    }
+
+    /**
+     * 对数分桶的延迟直方图，每个 2 的幂区间分为 8 个桶，相对误差不超过 12.5%
+     */
+    static final class Latency {
+
+        private static final int SUB_BUCKET_BITS = 3;
+
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private final long[] counts = new long[64 << SUB_BUCKET_BITS];
+
+        private long count;
+
+        private long max;
+
+        void record(long nanos) {
+            counts[index(Math.max(nanos, 0))]++;
+            count++;
+            max = Math.max(max, nanos);
+        }
+
+        void merge(Latency other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            count += other.count;
+            max = Math.max(max, other.max);
+        }
+
+        /**
+         * @return 分位数所在桶的下界，分位为 1 时为最大值，没有记录时为 0
+         */
+        long quantile(double quantile) {
+            long rank = (long) Math.ceil(quantile * count);
+            if (rank >= count) {
+                return max;
+            }
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(lowerBound(i), max);
+                }
+            }
+            return 0;
+        }
+
+        static int index(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + sub;
+        }
+
+        static long lowerBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int exponent = (index >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+            long sub = index & (SUB_BUCKETS - 1);
+            return (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int games = 10000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("参数格式为 key=value => " + arg);
+            }
+            switch (pair[0]) {
+                case "games":
+                    games = Integer.parseInt(pair[1]);
+                    break;
+                case "threads":
+                    threads = Integer.parseInt(pair[1]);
+                    break;
+                case "seed":
+                    seed = Long.parseLong(pair[1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知的参数 => " + arg);
+            }
+        }
+        System.out.println("开始模拟 " + games + " 局，线程数 " + threads + "，种子 " + seed);
+        System.out.print(new SelfPlaySimulator(threads, new BotPlayer()).run(games, seed));
+    }
+}
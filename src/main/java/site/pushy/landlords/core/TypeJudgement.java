@@ -1,6 +1,7 @@
 package site.pushy.landlords.core;
 
 import site.pushy.landlords.core.enums.CardGradeEnum;
+import site.pushy.landlords.core.enums.TypeEnum;
 import site.pushy.landlords.pojo.Card;
 
 import java.util.*;
@@ -251,6 +252,40 @@ public class TypeJudgement {
         return num == 1 || num == 2;
     }
 
+    /**
+     * 判断出的牌是否是某种牌型，会对传入的牌列表排序
+     */
+    public static boolean is(TypeEnum type, List<Card> cards) {
+        switch (type) {
+            case SINGLE:
+                return isSingle(cards);
+            case PAIR:
+                return isPair(cards);
+            case THREE:
+                return isThree(cards);
+            case THREE_WITH_ONE:
+                return isThreeWithOne(cards);
+            case THREE_WITH_PAIR:
+                return isThreeWithPair(cards);
+            case BOMB:
+                return isBomb(cards);
+            case JOKER_BOMB:
+                return isJokerBomb(cards);
+            case STRAIGHT:
+                return isStraight(cards);
+            case STRAIGHT_PAIR:
+                return isStraightPair(cards);
+            case AIRCRAFT:
+                return isAircraft(cards);
+            case AIRCRAFT_WITH_WINGS:
+                return isAircraftWithWing(cards);
+            case FOUR_WITH_TWO:
+                return isFourWithTwo(cards);
+            default:
+                return false;
+        }
+    }
+
     private static boolean isEmpty(List<Card> cards) {
         return cards == null || cards.size() == 0;
     }
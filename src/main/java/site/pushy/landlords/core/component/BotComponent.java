@@ -0,0 +1,207 @@
+package site.pushy.landlords.core.component;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.springframework.stereotype.Component;
+import site.pushy.landlords.common.config.properties.LandlordsProperties;
+import site.pushy.landlords.core.BotPlayer;
+import site.pushy.landlords.core.EndgameSolver;
+import site.pushy.landlords.core.GradeHistogram;
+import site.pushy.landlords.core.Hand;
+import site.pushy.landlords.core.HandEvaluator;
+import site.pushy.landlords.core.PlaySignature;
+import site.pushy.landlords.core.enums.RuleVariantEnum;
+import site.pushy.landlords.pojo.Player;
+import site.pushy.landlords.pojo.Room;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.concurrent.*;
+
+/**
+ * 机器人模块, 在独立的有界线程池中为玩家做出叫牌、出牌的决策, 不占用请求线程
+ * <p>
+ * 队列满时直接拒绝新的决策, 返回的 Future 以 {@link RejectedExecutionException} 失败
+ */
+@Component
+public class BotComponent {
+
+    @Resource
+    private LandlordsProperties properties;
+
+    private BotPlayer bot;
+
+    private EndgameSolver solver;
+
+    private ThreadPoolExecutor executor;
+
+    private ForkJoinPool evaluatorPool;
+
+    private HandEvaluator evaluator;
+
+    @PostConstruct
+    public void init() {
+        bot = new BotPlayer(TimeUnit.MILLISECONDS.toNanos(properties.getBotDecisionMillis()));
+        solver = new EndgameSolver(TimeUnit.MILLISECONDS.toNanos(properties.getEndgameMillis()));
+        int threads = Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getBotQueueCapacity()),
+                new ThreadFactoryBuilder().setNameFormat("bot-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+        evaluatorPool = new ForkJoinPool(threads);
+        evaluator = new HandEvaluator(evaluatorPool, properties.getEvaluatorSamples(),
+                TimeUnit.MILLISECONDS.toNanos(properties.getEvaluatorMillis()));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+        evaluatorPool.shutdownNow();
+    }
+
+    /**
+     * 为玩家决定叫牌的分数，根据模拟对局的胜率决定，没有完成任何模拟时使用大牌计分
+     * <p>
+     * 模拟在评估专用的线程池中异步执行，不占用出牌决策的线程
+     *
+     * @return 1 ~ 3 分，0 代表不叫
+     */
+    public CompletableFuture<Integer> bid(Player player) {
+        Hand hand = player.getHand();
+        return evaluator.evaluateAsync(hand)
+                .thenApply(evaluation -> evaluation.getRollouts() == 0 ? bot.bid(hand) : evaluation.suggestBid());
+    }
+
+    /**
+     * 为当前回合的玩家决定出牌，决策时使用的是提交时房间的状态
+     * <p>
+     * 三个玩家剩余的牌数之和不超过 {@link LandlordsProperties#getEndgameMaxCards()} 时先尝试残局求解，
+     * 求解出己方必胜时按求解结果出牌，否则使用启发式的出牌。
+     * 求解和启发式都只考虑标准规则的牌型，其他玩法下打出的牌同样合法，但不会利用癞子等额外规则
+     *
+     * @return 打出的牌，为空时代表不出
+     */
+    public CompletableFuture<Hand> play(Room room, Player player) {
+        Hand hand = player.getHand();
+        long prevSignature = prevSignature(room, player);
+        boolean partnerPlayed = prevSignature != PlaySignature.NONE
+                && !player.isLandlord() && !room.getPlayerById(room.getPrePlayerId()).isLandlord();
+        int minOpponentCards = Integer.MAX_VALUE;
+        for (Player each : room.getPlayerList()) {
+            if (each.isLandlord() != player.isLandlord()) {
+                minOpponentCards = Math.min(minOpponentCards, each.getCardSize());
+            }
+        }
+        Endgame endgame = isEndgame(room) ? new Endgame(room, player, prevSignature) : null;
+        int opponentCards = minOpponentCards;
+        return submit(() -> {
+            if (endgame != null) {
+                EndgameSolver.Solution solution = endgame.solve();
+                if (solution.isSolved() && solution.isLandlordWin() == player.isLandlord()) {
+                    return solution.getMove() == GradeHistogram.EMPTY ? Hand.EMPTY : hand.select(solution.getMove());
+                }
+            }
+            return bot.play(hand, prevSignature, partnerPlayed, opponentCards);
+        });
+    }
+
+    /**
+     * 当前回合玩家的出牌提示，按推荐程度从高到低排列，管不住上家时为空
+     * <p>
+     * 候选出牌由房间的规则枚举并排序，癞子玩法下包含用癞子组成的出牌；
+     * 标准规则的残局中求解出己方必胜时，把必胜的出牌排在最前。
+     * 在调用线程中同步执行，残局求解的耗时不超过 {@link LandlordsProperties#getEndgameMillis()}
+     *
+     * @return 每个元素是一手出牌的等级直方图
+     */
+    public long[] hint(Room room, Player player) {
+        long prevSignature = prevSignature(room, player);
+        long[] moves = BotPlayer.rank(room.getRules(), player.getHand().getHistogram(), prevSignature);
+        if (moves.length > 1 && isEndgame(room)) {
+            EndgameSolver.Solution solution = new Endgame(room, player, prevSignature).solve();
+            if (solution.isSolved() && solution.isLandlordWin() == player.isLandlord()) {
+                moveToFront(moves, solution.getMove());
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * 需要管住的上家出牌签名，自由出牌时为 {@link PlaySignature#NONE}
+     */
+    private static long prevSignature(Room room, Player player) {
+        if (room.getPreSignature() != PlaySignature.NONE && room.getPrePlayerId() != player.getId()) {
+            return room.getPreSignature();
+        }
+        return PlaySignature.NONE;
+    }
+
+    private boolean isEndgame(Room room) {
+        if (room.getRules().getVariant() != RuleVariantEnum.STANDARD) {
+            return false;
+        }
+        int totalCards = 0;
+        for (Player each : room.getPlayerList()) {
+            totalCards += each.getCardSize();
+        }
+        return totalCards <= properties.getEndgameMaxCards();
+    }
+
+    private static void moveToFront(long[] moves, long move) {
+        for (int i = 0; i < moves.length; i++) {
+            if (moves[i] == move) {
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 求解残局需要的房间状态快照
+     */
+    private final class Endgame {
+
+        private final long[] hands = new long[3];
+
+        private int landlord;
+
+        private final int current;
+
+        private final int prePlayer;
+
+        private final long prevSignature;
+
+        Endgame(Room room, Player player, long prevSignature) {
+            for (Player each : room.getPlayerList()) {
+                hands[each.getId() - 1] = each.getHand().getHistogram();
+                if (each.isLandlord()) {
+                    landlord = each.getId() - 1;
+                }
+            }
+            this.current = player.getId() - 1;
+            this.prePlayer = prevSignature == PlaySignature.NONE ? current : room.getPrePlayerId() - 1;
+            this.prevSignature = prevSignature;
+        }
+
+        EndgameSolver.Solution solve() {
+            return solver.solve(hands, landlord, current, prePlayer, prevSignature);
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
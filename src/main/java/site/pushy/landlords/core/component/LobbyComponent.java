@@ -0,0 +1,89 @@
+package site.pushy.landlords.core.component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import site.pushy.landlords.pojo.ApiResponse;
+
+import javax.annotation.Resource;
+
+/**
+ * 大厅的房间列表快照
+ * <p>
+ * 房间列表的响应体只在大厅的版本号变化后重新生成并序列化一次，版本号不变时所有的请求共用同一份字节，
+ * 版本号同时作为 ETag，客户端带上相同的 If-None-Match 时直接返回 304
+ */
+@Component
+public class LobbyComponent {
+
+    @Resource
+    private RoomComponent roomComponent;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    /**
+     * 进程启动的标识，避免重启后版本号从头开始时与客户端缓存的 ETag 相同
+     */
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * 当前版本的快照，版本号变化后第一次调用时重新生成
+     */
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null && current.version == roomComponent.getLobbyVersion()) {
+            return current;
+        }
+        synchronized (this) {
+            // 先读取版本号再生成，生成期间有变化时版本号已经递增，下一次调用会再次生成
+            long version = roomComponent.getLobbyVersion();
+            current = snapshot;
+            if (current == null || current.version != version) {
+                current = new Snapshot(version, "\"" + epoch + "-" + version + "\"", serialize());
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private byte[] serialize() {
+        try {
+            return objectMapper.writeValueAsBytes(ApiResponse.success(roomComponent.getLobbyEntries()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("JSON 序列化失败", e);
+        }
+    }
+
+    public static final class Snapshot {
+
+        private final long version;
+
+        private final String eTag;
+
+        private final byte[] body;
+
+        Snapshot(long version, String eTag, byte[] body) {
+            this.version = version;
+            this.eTag = eTag;
+            this.body = body;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        /**
+         * 序列化后的响应体，所有请求共用，不能修改
+         */
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
@@ -1,16 +1,28 @@
 package site.pushy.landlords.core.component;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.springframework.stereotype.Component;
 import site.pushy.landlords.common.exception.BadRequestException;
 import site.pushy.landlords.common.exception.ForbiddenException;
 import site.pushy.landlords.common.exception.NotFoundException;
+import site.pushy.landlords.core.LobbyIndex;
+import site.pushy.landlords.core.RoomIdAllocator;
+import site.pushy.landlords.core.RoomMailbox;
+import site.pushy.landlords.core.RoomRegistry;
+import site.pushy.landlords.core.enums.RoomStatusEnum;
+import site.pushy.landlords.core.enums.RuleVariantEnum;
 import site.pushy.landlords.pojo.Card;
 import site.pushy.landlords.pojo.DO.User;
+import site.pushy.landlords.pojo.DTO.RoomListOutputDTO;
 import site.pushy.landlords.pojo.Player;
 import site.pushy.landlords.pojo.Room;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 /**
  * @author fuxing
@@ -19,11 +31,57 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 public class RoomComponent {
 
-    // 用户玩家当前所在的房间号映射Map
-    private final Map<String, String> userRoomMap = new ConcurrentHashMap<>();
+    private static final int REGISTRY_SHARDS = 16;
 
-    // 房间号和与该房间所对应的Room对象映射Map
-    private final Map<String, Room> roomMap = new ConcurrentHashMap<>();
+    // 所有的房间以及用户当前所在的房间
+    private final RoomRegistry registry = new RoomRegistry(REGISTRY_SHARDS);
+
+    // 房间号的分配与回收
+    private final RoomIdAllocator idAllocator = new RoomIdAllocator();
+
+    // 大厅的版本号，任意房间大厅可见的字段变化后递增
+    private final AtomicLong lobbyVersion = new AtomicLong();
+
+    // 大厅分页查询用的二级索引
+    private final LobbyIndex lobbyIndex = new LobbyIndex();
+
+    // 所有房间的邮箱共用的线程池
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        executor = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("room-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 在房间的邮箱中执行命令，同一个房间的命令串行执行，见 {@link RoomMailbox}
+     */
+    public <T> CompletableFuture<T> submit(Room room, Callable<T> command) {
+        return room.getMailbox().submit(command);
+    }
+
+    /**
+     * 在用户当前所在房间的邮箱中执行命令，命令执行时用户已经离开该房间则以 {@link BadRequestException} 失败
+     *
+     * @throws BadRequestException 用户还未加入房间
+     */
+    public <T> CompletableFuture<T> submitToUserRoom(String userId, Function<Room, T> command) {
+        Room room = getUserRoom(userId);
+        return submit(room, () -> {
+            // 比较房间对象而不是房间号，房间号回收后可能已经属于另一个房间
+            if (registry.getUserRoom(userId) != room) {
+                throw new BadRequestException("玩家还未加入房间内");
+            }
+            return command.apply(room);
+        });
+    }
 
     /**
      * 创建房间
@@ -32,11 +90,20 @@ public class RoomComponent {
      * @return
      */
     public Room createRoom(User user, String title, String roomPassword) {
+        return createRoom(user, title, roomPassword, RuleVariantEnum.STANDARD);
+    }
+
+    /**
+     * 创建指定玩法的房间
+     */
+    public Room createRoom(User user, String title, String roomPassword, RuleVariantEnum ruleVariant) {
         if (getUserRoomId(user.getId()) != null) {
             throw new ForbiddenException("用户已在房间号为 " + getUserRoomId(user.getId()) + " 的房间");
         }
-        String roomId = newRoomid();
+        String roomId = String.valueOf(idAllocator.allocate());
         Room room = new Room(roomId);
+        room.setMailbox(new RoomMailbox(executor));
+        room.setRuleVariant(ruleVariant);
         room.setTitle(title);
         room.setOwner(user);
         // 默认情况下创建房间的人座位顺序为 1
@@ -50,13 +117,20 @@ public class RoomComponent {
             room.setLocked(true);
             room.setPassword(roomPassword);
         }
-        roomMap.put(roomId, room);
-        setUserRoom(user.getId(), roomId);
+        // 登记之前生成大厅的展示信息，登记之后其他用户可能已经在房间的邮箱中加入房间
+        room.setLobbyEntry(new RoomListOutputDTO(room));
+        // 同一个用户同时创建、加入两个房间时只有一个能成功
+        if (!registry.register(room)) {
+            idAllocator.release(Integer.parseInt(roomId));
+            throw new ForbiddenException("用户已在房间号为 " + getUserRoomId(user.getId()) + " 的房间");
+        }
+        reindex(roomId);
+        lobbyVersion.incrementAndGet();
         return room;
     }
 
     /**
-     * 加入房间
+     * 加入房间，需要在房间的邮箱中执行
      *
      * @param id
      * @param user
@@ -66,7 +140,7 @@ public class RoomComponent {
         if (getUserRoomId(user.getId()) != null) {
             throw new ForbiddenException("用户已在房间号为 " + getUserRoomId(user.getId()) + " 的房间");
         }
-        Room room = roomMap.get(id);
+        Room room = registry.get(id);
         //检查房间是否存在
         if (room == null) {
             throw new NotFoundException("该房间不存在，请核实您输入的房间号!");
@@ -76,7 +150,7 @@ public class RoomComponent {
             throw new ForbiddenException("您已经加入此房间，无法重复加入");
         }
         //检查房间中人数是否小于三人
-        if (room.getPlayerList().size() >= 3) {
+        if (room.getPlayerList().size() >= room.getRuleVariant().getSeats()) {
             //房间人数大于三人不能加入,返回消息
             throw new ForbiddenException("该房间已满，请寻找其他房间!");
         }
@@ -108,49 +182,130 @@ public class RoomComponent {
             player.setId(3);
         }
         player.setUser(user);
-        room.getUserList().add(user);
-        room.getPlayerList().add(player);
-
-        setUserRoom(user.getId(), room.getId());
+        // 同一个用户同时加入两个房间时只有一个能成功
+        if (!registry.join(room, player)) {
+            throw new ForbiddenException("用户已在房间号为 " + getUserRoomId(user.getId()) + " 的房间");
+        }
+        lobbyChanged(room);
         return "加入成功!";
     }
 
     /**
-     * 退出房间
+     * 退出房间，需要在房间的邮箱中执行
      *
      * @return 房间是否被解散
      */
     public boolean exitRoom(String id, User curUser) {
-        removeUserRoom(curUser.getId());
-
-        Room room = roomMap.get(id);
+        Room room = registry.get(id);
         if (room == null) {
             throw new NotFoundException("该房间不存在");
         }
-        room.removeUser(curUser.getId());
-        room.removePlayer(curUser.getId());
-        // 检查房间内剩余人数是否为0，为0则解散
-        if (room.getPlayerList().size() == 0) {
-            roomMap.remove(id);
-            return true;
+        // 房间内剩余人数为0时解散，回收房间号
+        boolean dissolved = registry.leave(room, curUser.getId());
+        if (dissolved) {
+            idAllocator.release(Integer.parseInt(id));
         }
-        return false;
+        lobbyChanged(room);
+        return dissolved;
     }
 
     /**
      * 列出所有已创建的房间
      */
     public List<Room> getRooms() {
-        List<Room> rooms = new LinkedList<>();
-        for (Map.Entry<String, Room> entry : roomMap.entrySet()) {
-            rooms.add(entry.getValue());
-            Collections.sort(entry.getValue().getPlayerList());
+        return registry.values();
+    }
+
+    /**
+     * 列出所有游戏中的房间，房间号从大厅索引的游戏中的桶里读取，不需要遍历所有房间
+     */
+    public List<Room> getPlayingRooms() {
+        List<String> ids = lobbyIndex.roomIds(RoomStatusEnum.PLAYING);
+        List<Room> rooms = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Room room = registry.get(id);
+            if (room != null) {
+                rooms.add(room);
+            }
         }
         return rooms;
     }
 
+    /**
+     * 房间在大厅中可见的字段（标题、玩家、状态等）变化之后调用，需要在房间的邮箱中执行
+     * <p>
+     * 重新生成房间在大厅中展示的信息，并且递增大厅的版本号，大厅的快照在版本号变化后才会重新生成
+     */
+    public void lobbyChanged(Room room) {
+        room.setLobbyEntry(new RoomListOutputDTO(room));
+        reindex(room.getId());
+        lobbyVersion.incrementAndGet();
+    }
+
+    /**
+     * 按房间号重新索引，房间号已经没有对应的房间（解散）时从索引中移除
+     * <p>
+     * 创建房间的线程和房间的邮箱可能同时索引同一个房间，每次都在索引的锁内重新读取房间当前的信息，
+     * 因此无论哪一次最后完成，索引中都是最新的信息；房间号回收后旧房间的索引也不会覆盖新房间
+     */
+    private void reindex(String roomId) {
+        lobbyIndex.update(roomId, () -> {
+            Room current = registry.get(roomId);
+            return current != null ? current.getLobbyEntry() : null;
+        });
+    }
+
+    /**
+     * 分页查询大厅中的房间，参数见 {@link LobbyIndex#query}
+     *
+     * @throws BadRequestException 游标不合法
+     */
+    public LobbyIndex.Page queryLobby(RoomStatusEnum status, Boolean locked, int minFreeSeats,
+                                      String titlePrefix, String cursor, int limit) {
+        try {
+            return lobbyIndex.query(status, locked, minFreeSeats, titlePrefix, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("翻页游标不合法");
+        }
+    }
+
+    /**
+     * 大厅的版本号，先读取版本号再读取 {@link #getLobbyEntries()}，得到的房间至少与该版本号一样新
+     */
+    public long getLobbyVersion() {
+        return lobbyVersion.get();
+    }
+
+    /**
+     * 所有房间在大厅中展示的信息
+     */
+    public List<RoomListOutputDTO> getLobbyEntries() {
+        List<RoomListOutputDTO> entries = new ArrayList<>(registry.size());
+        for (Room room : registry.values()) {
+            RoomListOutputDTO entry = room.getLobbyEntry();
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 房间数
+     */
+    public int getRoomCount() {
+        return registry.size();
+    }
+
+    /**
+     * 所有房间的空座位数
+     */
+    public int getFreeSeats() {
+        return registry.freeSeats();
+    }
+
     public Room getRoom(String roomId) {
-        Room room = roomMap.get(roomId);
+        Room room = registry.get(roomId);
         if (room == null) {
             throw new NotFoundException("该房间不存在");
         }
@@ -158,11 +313,9 @@ public class RoomComponent {
     }
 
     public void updateRoom(Room newRoom) {
-        String id = newRoom.getId();
-        if (roomMap.get(id) == null) {
+        if (registry.get(newRoom.getId()) != newRoom) {
             throw new NotFoundException("该房间不存在");
         }
-        roomMap.put(id, newRoom);
     }
 
     /**
@@ -183,57 +336,18 @@ public class RoomComponent {
      * 获取当前用户所在的房间对象
      */
     public Room getUserRoom(String userId) {
-        String roomId = userRoomMap.get(userId);
-        if (roomId == null) {
+        Room room = registry.getUserRoom(userId);
+        if (room == null) {
             throw new BadRequestException("玩家还未加入房间内");
         }
-        return roomMap.get(roomId);
-    }
-
-    /**
-     * 设置用户当前所在的房间号
-     */
-    private void setUserRoom(String userId, String roomId) {
-        userRoomMap.put(userId, roomId);
-    }
-
-    /**
-     * 移除用户当前所在房间的映射关系
-     */
-    private void removeUserRoom(String userId) {
-        userRoomMap.remove(userId);
+        return room;
     }
 
     /**
      * 获取用户当前所在的房间号
      */
     private String getUserRoomId(String userId) {
-        return userRoomMap.get(userId);
-    }
-
-    /**
-     * 生成不同的roomid
-     */
-    private String newRoomid() {
-        //随机生成房间id
-        int a = (int) ((Math.random() * 9 + 1) * 100000);
-        String roomid = String.valueOf(a);
-        //获取当前所有房间id的集合
-        Iterator<String> iter = roomMap.keySet().iterator();
-        List roomidList = new ArrayList();
-        while (iter.hasNext()) {
-            String key = iter.next();
-            roomidList.add(key);
-        }
-
-        //保证每次随机生成的roomid不重复
-        if (roomidList.contains(roomid)) {
-            //房间号已存在则重新生成
-            return newRoomid();
-        } else {
-            //不存在则生成roomid
-            return roomid;
-        }
+        return registry.getUserRoomId(userId);
     }
 
 }
@@ -0,0 +1,35 @@
+package site.pushy.landlords.core.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 玩法，创建房间时选择，对应的规则见 {@link site.pushy.landlords.core.RuleSet}
+ * <p>
+ * 目前所有玩法都是三个座位、一副牌，座位顺序和牌的编号都按照这一点实现
+ */
+@AllArgsConstructor
+@Getter
+public enum RuleVariantEnum {
+
+    STANDARD("经典", 3, 17, 3),
+
+    LAIZI("癞子", 3, 17, 3);
+
+    private final String value;
+
+    /**
+     * 座位数
+     */
+    private final int seats;
+
+    /**
+     * 每个玩家发到的牌数
+     */
+    private final int handSize;
+
+    /**
+     * 底牌的张数
+     */
+    private final int bottomSize;
+}
@@ -15,5 +15,10 @@ public enum TimeoutStrategy {
     /**
      * 出最小的单牌, 如果管的了上家的话
      */
-    PLAY_SMALLEST_CARD_IF_EXSITS
+    PLAY_SMALLEST_CARD_IF_EXSITS,
+
+    /**
+     * 由机器人代替玩家出牌
+     */
+    BOT_PLAY
 }
@@ -1,52 +1,74 @@
 package site.pushy.landlords.pojo;
 
-import lombok.Data;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+import site.pushy.landlords.core.ConstructCard;
 import site.pushy.landlords.core.enums.CardGradeEnum;
 import site.pushy.landlords.core.enums.CardNumberEnum;
 import site.pushy.landlords.core.enums.CardTypeEnum;
 
-import java.util.Objects;
-
 /**
  * 每张牌的抽象
+ * <p>
+ * 牌是不可变的，一副牌中的 54 张牌各自只有一个对象（见 {@link ConstructCard#getCard(int)}），
+ * 反序列化时也只根据 id 取得对应的唯一对象，客户端传入的花色、数值、等级会被忽略
  *
  * @author Pushy
  * @since 2018/12/28 21:41
  */
-@Data
+@Getter
+@JsonIgnoreProperties(value = {"type", "number", "grade"}, allowGetters = true, ignoreUnknown = true)
 public class Card implements Comparable<Card> {
 
     /**
      * 牌的数字 ID
      */
-    private int id;
+    private final int id;
 
     /**
      * 牌的类型
      */
-    private CardTypeEnum type;
+    private final CardTypeEnum type;
 
     /**
      * 牌的数值
      */
-    private CardNumberEnum number;
+    private final CardNumberEnum number;
 
     /**
      * 牌的等级
      * <p>
      * 和数值差别在于A和2数值虽然比3~K小，但是等级却比3高
      */
-    private CardGradeEnum grade;
+    private final CardGradeEnum grade;
 
     public Card() {
+        this(0, null, null, null);
     }
 
     public Card(CardGradeEnum grade) {
-        this.grade = grade;
+        this(0, null, null, grade);
     }
 
     public Card(int id) {
+        this(id, null, null, null);
+    }
+
+    public Card(int id, CardTypeEnum type, CardNumberEnum number, CardGradeEnum grade) {
         this.id = id;
+        this.type = type;
+        this.number = number;
+        this.grade = grade;
+    }
+
+    /**
+     * 通过 id 获取唯一的牌对象
+     */
+    @JsonCreator
+    public static Card of(@JsonProperty("id") int id) {
+        return ConstructCard.getCard(id);
     }
 
     public int getNumberValue() {
@@ -97,7 +119,7 @@ public class Card implements Comparable<Card> {
     }
 
     /**
-     * 实现两张牌是否相等
+     * 实现两张牌是否相等，同一张牌的 id 相同，没有 id 的牌只与自身相等
      *
      * @param o 另一张对比的牌
      */
@@ -105,18 +127,14 @@ public class Card implements Comparable<Card> {
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
-        //if (!super.equals(o)) return false;
 
         Card other = (Card) o;
-        if (number == null || other.number == null) {
-            return false;
-        }
-        return number.getValue() == other.number.getValue();
+        return id != 0 && id == other.id;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), number.getValue());
+        return id;
     }
 
     @Override
@@ -1,6 +1,7 @@
 package site.pushy.landlords.pojo.DTO;
 
 import lombok.Data;
+import site.pushy.landlords.core.enums.RuleVariantEnum;
 
 import javax.validation.constraints.NotBlank;
 
@@ -11,4 +12,9 @@ public class CreateRoomDTO {
     private String title;
 
     private String password;
+
+    /**
+     * 玩法，为空时为经典玩法
+     */
+    private RuleVariantEnum ruleVariant;
 }
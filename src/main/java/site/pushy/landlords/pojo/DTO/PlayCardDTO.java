@@ -0,0 +1,123 @@
+package site.pushy.landlords.pojo.DTO;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import lombok.Data;
+import site.pushy.landlords.common.exception.BadRequestException;
+import site.pushy.landlords.core.Hand;
+import site.pushy.landlords.pojo.Card;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 出牌的请求体，支持三种格式：
+ * <pre>
+ *   [{"id": 3, ...}, {"id": 16, ...}]   牌对象数组，只读取 id，兼容旧的客户端
+ *   [3, 16]                            牌 id 数组
+ *   "0x4004"                           54 位的牌位图，第 id - 1 位代表该牌，十进制或者 0x 开头的十六进制
+ * </pre>
+ * 最终都会转换为唯一的牌对象（见 {@link site.pushy.landlords.core.ConstructCard#getCard(int)}）
+ */
+@Data
+@JsonDeserialize(using = PlayCardDTO.Deserializer.class)
+public class PlayCardDTO {
+
+    /**
+     * 牌的 id
+     */
+    private int[] ids;
+
+    /**
+     * 牌的位图，不为空时忽略 ids
+     */
+    private String mask;
+
+    /**
+     * 转换为牌列表，重复的牌保留，由出牌校验拒绝
+     *
+     * @throws BadRequestException 存在不合法的 id 或者位图
+     */
+    public List<Card> toCards() {
+        if (mask != null) {
+            try {
+                return Hand.ofMask(Long.decode(mask)).toCards();
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("不合法的牌位图 => " + mask);
+            }
+        }
+        List<Card> cards = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            if (id < 1 || id > Hand.DECK_SIZE) {
+                throw new BadRequestException("不合法的牌 => " + id);
+            }
+            cards.add(Card.of(id));
+        }
+        return cards;
+    }
+
+    /**
+     * 直接读取 JSON 的 token，不为每张牌创建中间对象
+     */
+    public static class Deserializer extends StdDeserializer<PlayCardDTO> {
+
+        private static final long serialVersionUID = 4617093410557163278L;
+
+        public Deserializer() {
+            super(PlayCardDTO.class);
+        }
+
+        @Override
+        public PlayCardDTO deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            PlayCardDTO dto = new PlayCardDTO();
+            JsonToken token = p.getCurrentToken();
+            if (token == JsonToken.VALUE_STRING) {
+                dto.setMask(p.getText().trim());
+                return dto;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                return (PlayCardDTO) ctxt.handleUnexpectedToken(PlayCardDTO.class, p);
+            }
+            int[] ids = new int[20];
+            int size = 0;
+            while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+                int id;
+                if (token == JsonToken.VALUE_NUMBER_INT) {
+                    id = p.getIntValue();
+                } else if (token == JsonToken.START_OBJECT) {
+                    id = readId(p);
+                } else {
+                    return (PlayCardDTO) ctxt.handleUnexpectedToken(PlayCardDTO.class, p);
+                }
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                ids[size++] = id;
+            }
+            dto.setIds(Arrays.copyOf(ids, size));
+            return dto;
+        }
+
+        /**
+         * 读取牌对象中的 id，其余字段跳过，没有 id 时返回 0
+         */
+        private int readId(JsonParser p) throws IOException {
+            int id = 0;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                JsonToken value = p.nextToken();
+                if ("id".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                    id = p.getIntValue();
+                } else {
+                    p.skipChildren();
+                }
+            }
+            return id;
+        }
+    }
+}
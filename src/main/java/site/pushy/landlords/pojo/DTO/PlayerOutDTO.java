@@ -59,7 +59,7 @@ public class PlayerOutDTO {
 
     public PlayerOutDTO(Player player) {
         id = player.getId();
-        cardSize = player.getCards().size();
+        cardSize = player.getCardSize();
         identity = player.getIdentity();
         ready = player.isReady();
         user = UserOutDTO.fromUser(player.getUser());
@@ -45,6 +45,11 @@ public class RoomListOutputDTO {
      */
     private RoomStatusEnum status;
 
+    /**
+     * 空座位数
+     */
+    private int freeSeats;
+
     public RoomListOutputDTO(Room room) {
         id = room.getId();
         title = room.getTitle();
@@ -54,6 +59,7 @@ public class RoomListOutputDTO {
                 .map(UserOutDTO::fromUser)
                 .collect(Collectors.toList());
         status = room.getStatus();
+        freeSeats = room.getRuleVariant().getSeats() - room.getPlayerList().size();
     }
 
     public String getStatusValue() {
@@ -2,6 +2,7 @@ package site.pushy.landlords.pojo.DTO;
 
 import lombok.Data;
 import site.pushy.landlords.core.enums.RoomStatusEnum;
+import site.pushy.landlords.core.enums.RuleVariantEnum;
 import site.pushy.landlords.pojo.Card;
 import site.pushy.landlords.pojo.DO.User;
 import site.pushy.landlords.pojo.Player;
@@ -42,6 +43,16 @@ public class RoomOutDTO {
      */
     private RoomStatusEnum status;
 
+    /**
+     * 房间的玩法
+     */
+    private RuleVariantEnum ruleVariant;
+
+    /**
+     * 当前一局癞子的等级，没有癞子时为 0
+     */
+    private int wildGrade;
+
     /**
      * 房间底分
      */
@@ -52,6 +63,11 @@ public class RoomOutDTO {
      */
     private List<Card> topCards;
 
+    /**
+     * 记牌器，每个等级还没有打出的牌数，下标为等级 - 1，即依次为 3 ~ K、A、2、小王、大王
+     */
+    private int[] remainingCards;
+
     /**
      * 每局走的步数，用来控制玩家的出牌回合
      */
@@ -71,10 +87,13 @@ public class RoomOutDTO {
                 .map(PlayerOutDTO::new)
                 .collect(Collectors.toList());
         roomOutDTO.status = room.getStatus();
+        roomOutDTO.ruleVariant = room.getRuleVariant();
+        roomOutDTO.wildGrade = room.getWildGrade();
         roomOutDTO.multiple = room.getMultiple();
         if (room.getDistribution() != null) {
             roomOutDTO.topCards = room.getDistribution().getTopCards();
         }
+        roomOutDTO.remainingCards = room.getRemainingCards();
         roomOutDTO.stepNum = room.getStepNum();
         return roomOutDTO;
     }
@@ -0,0 +1,22 @@
+package site.pushy.landlords.pojo;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 某一回合的出牌提示，同一回合内反复请求时直接返回
+ */
+@Data
+public class PlayHint {
+
+    /**
+     * 计算提示时房间的步数
+     */
+    private final int stepNum;
+
+    /**
+     * 按推荐程度从高到低排列的出牌
+     */
+    private final List<List<Card>> candidates;
+}
@@ -1,11 +1,15 @@
 package site.pushy.landlords.pojo;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Setter;
+import site.pushy.landlords.core.CombinationIndex;
+import site.pushy.landlords.core.Hand;
 import site.pushy.landlords.core.enums.IdentityEnum;
 import site.pushy.landlords.pojo.DO.User;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -30,7 +34,15 @@ public class Player implements Comparable<Player> {
     /**
      * 玩家当前手中的牌
      */
-    private List<Card> cards;
+    @JsonIgnore
+    private Hand hand;
+
+    /**
+     * 手牌的组合索引，随着手牌的变化逐张更新
+     */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private CombinationIndex index;
 
     /**
      * 玩家最近出的牌列表
@@ -48,7 +60,7 @@ public class Player implements Comparable<Player> {
     private boolean ready;
 
     public Player() {
-        cards = new ArrayList<>();
+        setHand(Hand.EMPTY);
         recentCards = new ArrayList<>();
         ready = false;
     }
@@ -72,17 +84,54 @@ public class Player implements Comparable<Player> {
         return id == 3 ? 1 : id + 1;
     }
 
+    /**
+     * 玩家当前手中的牌，按照等级由大到小排列
+     */
+    public List<Card> getCards() {
+        return hand.toCards();
+    }
+
+    public void setCards(List<Card> cardList) {
+        setHand(Hand.of(cardList));
+    }
+
+    public void setHand(Hand hand) {
+        this.hand = hand;
+        index = CombinationIndex.of(hand);
+    }
+
+    /**
+     * 玩家当前手中牌的张数，手牌与组合索引总是一起更新，张数与 {@link CombinationIndex#size()} 相同
+     */
+    public int getCardSize() {
+        return hand.size();
+    }
+
     public void addCards(List<Card> cardList) {
-        cards.addAll(cardList);
-        // 添加地主牌后重新按照等级排序
-        Collections.sort(cards);
+        addCards(Hand.of(cardList));
+    }
+
+    public void addCards(Hand cards) {
+        Hand added = Hand.ofMask(cards.getMask() & ~hand.getMask());
+        hand = hand.addAll(added);
+        index.addAll(added);
     }
 
     public void removeCards(List<Card> cardList) {
-        for (Card card : cardList) {
-            cards.remove(card);
+        removeCards(Hand.of(cardList));
+    }
+
+    /**
+     * 移除玩家打出的牌
+     *
+     * @throws IllegalArgumentException 玩家没有持有其中的某些牌
+     */
+    public void removeCards(Hand cards) {
+        if (!hand.containsAll(cards)) {
+            throw new IllegalArgumentException("玩家没有持有打出的牌");
         }
-        Collections.sort(cards);
+        hand = hand.removeAll(cards);
+        index.removeAll(cards);
     }
 
     public void clearRecentCards() {
@@ -93,7 +142,7 @@ public class Player implements Comparable<Player> {
      * 开局重置Player对象中的值
      */
     public void reset() {
-        cards.clear();
+        setHand(Hand.EMPTY);
         ready = false;
         identity = null;
         recentCards.clear();
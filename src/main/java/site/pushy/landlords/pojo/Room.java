@@ -4,13 +4,18 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import org.springframework.util.StringUtils;
 import site.pushy.landlords.core.CardDistribution;
+import site.pushy.landlords.core.CardTracker;
+import site.pushy.landlords.core.GameRecord;
+import site.pushy.landlords.core.PlaySignature;
+import site.pushy.landlords.core.RoomMailbox;
+import site.pushy.landlords.core.RuleSet;
 import site.pushy.landlords.core.enums.RoomStatusEnum;
+import site.pushy.landlords.core.enums.RuleVariantEnum;
 import site.pushy.landlords.pojo.DO.User;
+import site.pushy.landlords.pojo.DTO.RoomListOutputDTO;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /**
@@ -60,6 +65,17 @@ public class Room {
      */
     private RoomStatusEnum status;
 
+    /**
+     * 房间的玩法，创建房间时选择
+     */
+    private RuleVariantEnum ruleVariant;
+
+    /**
+     * 当前一局使用的规则集，每局开始时按照玩法和发牌的种子确定
+     */
+    @JsonIgnore
+    private RuleSet rules;
+
     /**
      * 房间底分
      */
@@ -80,6 +96,12 @@ public class Room {
      */
     private List<Card> preCards;
 
+    /**
+     * 上一回合玩家打出的牌的签名，见 {@link PlaySignature}
+     */
+    @JsonIgnore
+    private long preSignature;
+
     /**
      * 上一回合玩家的 playerId
      */
@@ -94,25 +116,66 @@ public class Room {
     private CardDistribution distribution;
 
     /**
-     * 同步器, 防止并发操作
+     * 当前一局的游戏记录
+     */
+    @JsonIgnore
+    private GameRecord record;
+
+    /**
+     * 当前一局的记牌器
+     */
+    @JsonIgnore
+    private CardTracker tracker;
+
+    /**
+     * 当前回合的出牌提示
      */
     @JsonIgnore
-    private Lock sync;
+    private volatile PlayHint hint;
+
+    /**
+     * 房间在大厅中展示的信息，大厅可见的字段变化时在房间的邮箱中重新生成
+     */
+    @JsonIgnore
+    private volatile RoomListOutputDTO lobbyEntry;
+
+    /**
+     * 房间的邮箱，所有修改房间状态的操作都在邮箱中串行执行，见 {@link RoomMailbox}
+     */
+    @JsonIgnore
+    private RoomMailbox mailbox;
 
     public String getStatusValue() {
         return status != null ? status.getValue() : "";
     }
 
+    /**
+     * 当前一局癞子的等级，没有癞子时为 0
+     */
+    public int getWildGrade() {
+        return rules.getWildGrade();
+    }
+
+    /**
+     * 每个等级还没有打出的牌数，下标为等级 - 1，即依次为 3 ~ K、A、2、小王、大王
+     */
+    public int[] getRemainingCards() {
+        return tracker.toArray();
+    }
+
     public Room() {
         this.locked = false;
         this.status = RoomStatusEnum.PREPARING;
+        this.ruleVariant = RuleVariantEnum.STANDARD;
+        this.rules = RuleSet.standard();
         this.playerList = new ArrayList<>();
         this.userList = new ArrayList<>();
         this.multiple = 1;
+        this.preSignature = PlaySignature.NONE;
         this.prePlayerId = 0;
         this.stepNum = -1;   // 当step = -1时代表叫牌还未结束
         this.biddingPlayer = -1;
-        this.sync = new ReentrantLock();
+        this.tracker = new CardTracker();
     }
 
     public Room(String id) {
@@ -127,10 +190,14 @@ public class Room {
         this.multiple = 1;
         this.status = RoomStatusEnum.PREPARING;
         this.preCards = null;
+        this.preSignature = PlaySignature.NONE;
         this.prePlayerId = 0;
         this.stepNum = -1;
         this.biddingPlayer = -1;
         this.prePlayTime = 0;
+        this.record = null;
+        this.hint = null;
+        this.tracker = new CardTracker();
         // 初始化Player对象的值
         for (Player player : playerList) {
             player.reset();
@@ -154,8 +221,15 @@ public class Room {
         return locked && StringUtils.hasLength(getPassword());
     }
 
+    /**
+     * 按座位顺序插入玩家，玩家列表始终是有序的
+     */
     public void addPlayer(Player player) {
-        this.playerList.add(player);
+        int index = playerList.size();
+        while (index > 0 && playerList.get(index - 1).compareTo(player) > 0) {
+            index--;
+        }
+        this.playerList.add(index, player);
     }
 
     public void removePlayer(String userId) {
@@ -188,7 +262,7 @@ public class Room {
      * 当前出牌的玩家
      */
     public int getCurrentPlayerId() {
-        int r = getStepNum() / 3;
+        int r = getStepNum() % 3;
         return r == 0 ? 3 : r;
     }
 
@@ -237,7 +311,7 @@ public class Room {
     }
 
     public boolean isAllReady() {
-        if (getPlayerList().size() != 3) {
+        if (getPlayerList().size() != ruleVariant.getSeats()) {
             return false;
         }
         for (Player player : getPlayerList()) {
@@ -0,0 +1,63 @@
+package site.pushy.landlords.processor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import site.pushy.landlords.common.config.properties.LandlordsProperties;
+import site.pushy.landlords.core.component.RoomComponent;
+import site.pushy.landlords.core.enums.RoomStatusEnum;
+import site.pushy.landlords.core.enums.TimeoutStrategy;
+import site.pushy.landlords.pojo.Room;
+
+import javax.annotation.Resource;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 定时检查出牌超时的房间，交给配置的策略对应的 {@link PlayTimeoutProcessor} 处理
+ * <p>
+ * 只检查大厅索引中游戏中的房间，处理器不处理的房间（见 {@link PlayTimeoutProcessor#accepts}）不会向邮箱提交命令
+ */
+@Component
+public class PlayTimeoutDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlayTimeoutDispatcher.class);
+
+    @Resource
+    private LandlordsProperties properties;
+
+    @Resource
+    private RoomComponent roomComponent;
+
+    private final Map<TimeoutStrategy, PlayTimeoutProcessor> processors = new EnumMap<>(TimeoutStrategy.class);
+
+    public PlayTimeoutDispatcher(List<PlayTimeoutProcessor> processors) {
+        for (PlayTimeoutProcessor processor : processors) {
+            this.processors.put(processor.getStrategy(), processor);
+        }
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void dispatch() {
+        TimeoutStrategy strategy = properties.getTimeoutStrategy();
+        PlayTimeoutProcessor processor = strategy == null ? null : processors.get(strategy);
+        if (processor == null) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() - properties.getMaxSecondsForEveryRound() * 1000L;
+        for (Room room : roomComponent.getPlayingRooms()) {
+            if (room.getStatus() != RoomStatusEnum.PLAYING || room.getStepNum() == -1
+                    || room.getPrePlayTime() == 0 || room.getPrePlayTime() > deadline
+                    || room.getPlayerById(room.getCurrentPlayerId()) == null || !processor.accepts(room)) {
+                continue;
+            }
+            try {
+                processor.process(room);
+            } catch (RuntimeException e) {
+                logger.error("[{}] 出牌超时处理异常", room.getId(), e);
+            }
+        }
+    }
+}
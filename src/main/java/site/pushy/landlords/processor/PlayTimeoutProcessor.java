@@ -10,5 +10,12 @@ public interface PlayTimeoutProcessor {
 
     void process(Room room);
 
+    /**
+     * 是否处理该房间的超时，在房间的邮箱外调用，只用于提交之前的过滤，处理时仍然要在邮箱中重新检查
+     */
+    default boolean accepts(Room room) {
+        return true;
+    }
+
     TimeoutStrategy getStrategy();
 }
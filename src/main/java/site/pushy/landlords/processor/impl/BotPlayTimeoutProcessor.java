@@ -0,0 +1,77 @@
+package site.pushy.landlords.processor.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import site.pushy.landlords.core.Hand;
+import site.pushy.landlords.core.component.BotComponent;
+import site.pushy.landlords.core.component.RoomComponent;
+import site.pushy.landlords.core.enums.RoomStatusEnum;
+import site.pushy.landlords.core.enums.TimeoutStrategy;
+import site.pushy.landlords.pojo.DO.User;
+import site.pushy.landlords.pojo.Player;
+import site.pushy.landlords.pojo.Room;
+import site.pushy.landlords.processor.PlayTimeoutProcessor;
+import site.pushy.landlords.service.GameService;
+
+import javax.annotation.Resource;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 出牌超时后由机器人代替玩家出牌
+ * <p>
+ * 在房间的邮箱中读取房间的状态，决策在机器人线程池中异步完成，出牌前在邮箱中重新检查房间的回合，
+ * 玩家已经在这期间出牌时放弃机器人的决策
+ */
+@Service
+public class BotPlayTimeoutProcessor implements PlayTimeoutProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(BotPlayTimeoutProcessor.class);
+
+    @Resource
+    private BotComponent botComponent;
+
+    @Resource
+    private RoomComponent roomComponent;
+
+    @Resource
+    private GameService gameService;
+
+    @Override
+    public void process(Room room) {
+        roomComponent.submit(room, () -> {
+            int stepNum = room.getStepNum();
+            if (room.getStatus() != RoomStatusEnum.PLAYING || stepNum == -1) {
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            Player player = room.getPlayerById(room.getCurrentPlayerId());
+            return botComponent.play(room, player)
+                    .thenCompose(cards -> roomComponent.submit(room, () -> apply(room, stepNum, player, cards)));
+        }).thenCompose(decision -> decision).exceptionally(throwable -> {
+            logger.error("[{}] 机器人出牌失败", room.getId(), throwable);
+            return null;
+        });
+    }
+
+    /**
+     * 在房间的邮箱中执行，对 {@link GameService} 的调用直接在当前线程完成
+     */
+    private Void apply(Room room, int stepNum, Player player, Hand cards) {
+        if (room.getStatus() != RoomStatusEnum.PLAYING || room.getStepNum() != stepNum) {
+            return null;
+        }
+        User user = player.getUser();
+        logger.info("[{}] 玩家 {} 出牌超时，由机器人代替出牌", room.getId(), user.getUsername());
+        if (cards.isEmpty()) {
+            gameService.pass(user).join();
+        } else {
+            gameService.playCard(user, cards.toCards()).join();
+        }
+        return null;
+    }
+
+    @Override
+    public TimeoutStrategy getStrategy() {
+        return TimeoutStrategy.BOT_PLAY;
+    }
+}
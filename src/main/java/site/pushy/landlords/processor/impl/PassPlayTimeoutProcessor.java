@@ -1,16 +1,59 @@
 package site.pushy.landlords.processor.impl;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import site.pushy.landlords.core.PlaySignature;
+import site.pushy.landlords.core.component.RoomComponent;
+import site.pushy.landlords.core.enums.RoomStatusEnum;
 import site.pushy.landlords.core.enums.TimeoutStrategy;
+import site.pushy.landlords.pojo.Player;
 import site.pushy.landlords.pojo.Room;
 import site.pushy.landlords.processor.PlayTimeoutProcessor;
+import site.pushy.landlords.service.GameService;
+
+import javax.annotation.Resource;
 
 @Service
 public class PassPlayTimeoutProcessor implements PlayTimeoutProcessor {
 
+    private static final Logger logger = LoggerFactory.getLogger(PassPlayTimeoutProcessor.class);
+
+    @Resource
+    private RoomComponent roomComponent;
+
+    @Resource
+    private GameService gameService;
+
     @Override
     public void process(Room room) {
-        // TODO: 出牌超时处理
+        int stepNum = room.getStepNum();
+        roomComponent.submit(room, () -> {
+            // 检查在邮箱中执行，期间房间的状态不会改变，玩家已经出牌或者已经超时处理过时放弃
+            if (room.getStatus() != RoomStatusEnum.PLAYING || room.getStepNum() != stepNum) {
+                return null;
+            }
+            if (isFreeLead(room)) {
+                return null;
+            }
+            Player player = room.getPlayerById(room.getCurrentPlayerId());
+            return gameService.pass(player.getUser()).join();
+        }).exceptionally(throwable -> {
+            logger.error("[{}] 超时不出失败", room.getId(), throwable);
+            return null;
+        });
+    }
+
+    /**
+     * 自由出牌的回合不能不出，继续等待玩家出牌，不需要每次检查都向邮箱提交命令
+     */
+    @Override
+    public boolean accepts(Room room) {
+        return !isFreeLead(room);
+    }
+
+    private static boolean isFreeLead(Room room) {
+        return room.getPreSignature() == PlaySignature.NONE || room.getPrePlayerId() == room.getCurrentPlayerId();
     }
 
     @Override
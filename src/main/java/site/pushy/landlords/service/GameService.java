@@ -7,8 +7,11 @@ import site.pushy.landlords.pojo.Room;
 import site.pushy.landlords.pojo.RoundResult;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
+ * 游戏操作都在玩家所在房间的邮箱中串行执行，返回的 Future 在执行完成后完成，玩家还未加入房间时直接抛出异常
+ *
  * @author Pushy and Fuxing
  * @since 2019/1/9 21:19
  */
@@ -19,30 +22,32 @@ public interface GameService {
      *
      * @return 是否开局，当房间的内的所有玩家都准备，并且人数已满3人，即为开局
      */
-    boolean readyGame(User user);
+    CompletableFuture<Boolean> readyGame(User user);
 
     /**
      * 取消准备
      */
-    void unReadyGame(User curUser);
+    CompletableFuture<Void> unReadyGame(User curUser);
 
     /**
      * 叫牌，并分配该玩家该地主身份，并将三张地主加入到该玩家的牌中
      */
-    void want(User user, int score);
+    CompletableFuture<Void> want(User user, int score);
 
     /**
      * 轮到此人叫牌，选择不叫地主，将叫地主消息传递给下一家
      */
-    void noWant(User user);
+    CompletableFuture<Void> noWant(User user);
 
     /**
-     * 出牌
+     * 出牌，一局结束时结算分数
+     *
+     * @return 一局结束时为本局的结果，否则为 null
      */
-    RoundResult playCard(User user, List<Card> cardList);
+    CompletableFuture<RoundResult> playCard(User user, List<Card> cardList);
 
     /**
      * 要不起
      */
-    void pass(User user);
+    CompletableFuture<Void> pass(User user);
 }
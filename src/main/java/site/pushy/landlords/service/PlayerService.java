@@ -4,6 +4,7 @@ import site.pushy.landlords.pojo.Card;
 import site.pushy.landlords.pojo.DO.User;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Pushy
@@ -31,9 +32,24 @@ public interface PlayerService {
      */
     boolean canPass(User curUser);
 
+    /**
+     * 判断玩家手中是否有牌可以管住上家出的牌，轮到玩家自由出牌时始终返回 true
+     */
+    boolean canPlay(User curUser);
+
     /**
      * 判断玩家是否可以叫牌
      */
     boolean canBid(User curUser);
 
+    /**
+     * 根据手牌强度建议叫牌的分数，0 代表不叫，评估在机器人线程池中异步完成
+     */
+    CompletableFuture<Integer> suggestBid(User curUser);
+
+    /**
+     * 获取当前回合的出牌提示，按推荐程度从高到低排列，管不住上家时为空，在房间的邮箱中异步计算
+     */
+    CompletableFuture<List<List<Card>>> getHint(User curUser);
+
 }
@@ -1,10 +1,13 @@
 package site.pushy.landlords.service;
 
+import site.pushy.landlords.core.enums.RuleVariantEnum;
 import site.pushy.landlords.pojo.DO.User;
 import site.pushy.landlords.pojo.DTO.RoomDTO;
 import site.pushy.landlords.pojo.DTO.RoomOutDTO;
 import site.pushy.landlords.pojo.Room;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * @author Pushy
  * @since 2018/12/29 21:08
@@ -15,9 +18,17 @@ public interface RoomService {
 
     RoomOutDTO getRoomById(User curUser, String id);
 
-    Room createRoom(User curUser, String title, String password);
+    Room createRoom(User curUser, String title, String password, RuleVariantEnum ruleVariant);
 
-    String joinRoom(User curUser, RoomDTO roomDTO);
+    /**
+     * 在房间的邮箱中加入房间
+     */
+    CompletableFuture<String> joinRoom(User curUser, RoomDTO roomDTO);
 
-    boolean exitRoom(User curUser);
+    /**
+     * 在用户所在房间的邮箱中退出房间
+     *
+     * @return 房间是否被解散
+     */
+    CompletableFuture<Boolean> exitRoom(User curUser);
 }
@@ -4,10 +4,14 @@ import io.vavr.control.Try;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import site.pushy.landlords.common.exception.BadRequestException;
 import site.pushy.landlords.common.exception.ForbiddenException;
 import site.pushy.landlords.core.CardDistribution;
-import site.pushy.landlords.core.CardUtils;
-import site.pushy.landlords.core.GradeComparison;
+import site.pushy.landlords.core.CardTracker;
+import site.pushy.landlords.core.GameRecord;
+import site.pushy.landlords.core.Hand;
+import site.pushy.landlords.core.PlaySignature;
+import site.pushy.landlords.core.RuleSet;
 import site.pushy.landlords.core.component.NotifyComponent;
 import site.pushy.landlords.core.component.RoomComponent;
 import site.pushy.landlords.core.enums.IdentityEnum;
@@ -20,11 +24,13 @@ import site.pushy.landlords.pojo.Player;
 import site.pushy.landlords.pojo.Room;
 import site.pushy.landlords.pojo.RoundResult;
 import site.pushy.landlords.pojo.ws.*;
+import site.pushy.landlords.service.AchievementService;
 import site.pushy.landlords.service.GameService;
 
 import javax.annotation.Resource;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Pushy
@@ -43,9 +49,52 @@ public class GameServiceImpl implements GameService {
     @Resource
     private NotifyComponent notifyComponent;
 
+    @Resource
+    private AchievementService achievementService;
+
+    @Override
+    public CompletableFuture<Boolean> readyGame(User user) {
+        return roomComponent.submitToUserRoom(user.getId(), room -> readyGame(room, user));
+    }
+
+    @Override
+    public CompletableFuture<Void> unReadyGame(User curUser) {
+        return roomComponent.submitToUserRoom(curUser.getId(), room -> {
+            unReadyGame(room, curUser);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> want(User user, int score) {
+        return roomComponent.submitToUserRoom(user.getId(), room -> {
+            want(room, user, score);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> noWant(User user) {
+        return roomComponent.submitToUserRoom(user.getId(), room -> {
+            noWant(room, user);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<RoundResult> playCard(User user, List<Card> cardList) {
+        return roomComponent.submitToUserRoom(user.getId(), room -> playCard(room, user, cardList));
+    }
+
     @Override
-    public boolean readyGame(User user) {
-        Room room = roomComponent.getUserRoom(user.getId());
+    public CompletableFuture<Void> pass(User user) {
+        return roomComponent.submitToUserRoom(user.getId(), room -> {
+            pass(room, user);
+            return null;
+        });
+    }
+
+    private boolean readyGame(Room room, User user) {
         // 更改玩家的准备状态
         Player player = room.getPlayerByUserId(user.getId());
         player.setReady(true);
@@ -57,17 +106,13 @@ public class GameServiceImpl implements GameService {
         // 检查是否房间内的人数等于3人，并且全部都处于准备中的状态
         boolean isAllReady = room.isAllReady();
         if (isAllReady) {
-            room.getSync().lock();
             Try.run(() -> startGame(room))
-                    .onFailure(throwable -> logger.error("[{}] 开始游戏异常", room.getId(), throwable))
-                    .andFinally(() -> room.getSync().unlock());
+                    .onFailure(throwable -> logger.error("[{}] 开始游戏异常", room.getId(), throwable));
         }
         return isAllReady;
     }
 
-    @Override
-    public void unReadyGame(User curUser) {
-        Room room = roomComponent.getUserRoom(curUser.getId());
+    private void unReadyGame(Room room, User curUser) {
         Player player = room.getPlayerByUserId(curUser.getId());
         player.setReady(false);
 
@@ -76,9 +121,7 @@ public class GameServiceImpl implements GameService {
         notifyComponent.sendToAllUserOfRoom(room.getId(), new UnReadyGameMessage(curUser.getId()));
     }
 
-    @Override
-    public void want(User user, int score) {
-        Room room = roomComponent.getUserRoom(user.getId());
+    private void want(Room room, User user, int score) {
         logger.info("[{}] 玩家 {} 叫牌，分数为 {} 分", room.getId(), user.getUsername(), score);
 
         room.setMultiple(score);
@@ -91,9 +134,10 @@ public class GameServiceImpl implements GameService {
                 landlordUser = player.getUser();
                 room.setStepNum(player.getId());
                 player.setIdentity(IdentityEnum.LANDLORD);
+                room.getRecord().bid(player.getId(), score);
                 // 将三张地主牌分配给地主
                 CardDistribution distribution = room.getDistribution();
-                player.addCards(distribution.getTopCards());
+                player.addCards(distribution.getTopHand());
             } else {
                 player.setIdentity(IdentityEnum.FARMER);
             }
@@ -108,9 +152,10 @@ public class GameServiceImpl implements GameService {
         logger.info("[{}] 玩家 {} 成为地主", room.getId(), landlordUser.getUsername());
     }
 
-    @Override
-    public void noWant(User user) {
-        Room room = roomComponent.getUserRoom(user.getId());
+    private void noWant(Room room, User user) {
+        if (room.getPlayerByUserId(user.getId()).getId() != room.getBiddingPlayer()) {
+            throw new ForbiddenException("不是当前用户的叫牌回合");
+        }
         room.incrBiddingPlayer();
         for (Player player : room.getPlayerList()) {
             if (player.getUser().getId().equals(user.getId())) {
@@ -144,32 +189,43 @@ public class GameServiceImpl implements GameService {
         }
     }
 
-    @Override
-    public RoundResult playCard(User user, List<Card> cardList) {
-        Room room = roomComponent.getUserRoom(user.getId());
+    private RoundResult playCard(Room room, User user, List<Card> cardList) {
         logger.info("[{}] 玩家 {} 出牌: {}", room.getId(), user.getUsername(), cardList);
 
         Player player = room.getPlayerByUserId(user.getId());
-        // 校验玩家出的牌是否符合斗地主规则规范
-        TypeEnum myType = CardUtils.getCardsType(cardList);
-        if (myType == null) {
+        validRound(room, player);
+        // 校验玩家是否持有打出的每一张牌
+        Hand played = toHand(cardList);
+        if (!player.getHand().containsAll(played)) {
+            logger.warn("[{}] 玩家 {} 打出了不在手中的牌", room.getId(), user.getUsername());
+            throw new ForbiddenException("玩家打出的牌不在手牌中");
+        }
+        // 校验玩家出的牌是否符合房间玩法的规则
+        RuleSet rules = room.getRules();
+        long signature = rules.signature(played.getHistogram());
+        if (signature == PlaySignature.NONE) {
             logger.warn("[{}] 玩家 {} 打出的牌不符合规则", room.getId(), user.getUsername());
             throw new ForbiddenException("玩家打出的牌不符合规则");
         }
-        if (room.getPreCards() != null && room.getPrePlayerId() != player.getId()) {
-            // 判断该玩家打出的牌是否能比上家出的牌大
-            TypeEnum preType = CardUtils.getCardsType(room.getPreCards());
-            boolean canPlay = GradeComparison.canPlayCards(cardList, myType, room.getPreCards(), preType);
+        if (room.getPreSignature() != PlaySignature.NONE && room.getPrePlayerId() != player.getId()) {
+            // 判断该玩家打出的牌是否能比上家出的牌大，癞子玩法时取能管住上家的那一种牌型
+            TypeEnum preType = PlaySignature.getType(room.getPreSignature());
+            long response = rules.signature(played.getHistogram(), room.getPreSignature());
+            boolean canPlay = response != PlaySignature.NONE;
             logger.info("【{}】 myType：{}，preType：{}，canPlay：{}", user.getUsername(),
-                    myType.getName(), preType.getName(), canPlay);
+                    PlaySignature.getType(signature).getName(), preType.getName(), canPlay);
             if (!canPlay) {
                 throw new ForbiddenException("该玩家出的牌管不了上家");
             }
+            signature = response;
         }
+        TypeEnum myType = PlaySignature.getType(signature);
+        room.getRecord().play(player.getId(), played);
+        room.getTracker().record(played);
         removeNextPlayerRecentCards(room, player);   // 移除下一个玩家最近出的牌
         player.setRecentCards(cardList);
         // 移除玩家列表中打出的牌
-        player.removeCards(cardList);
+        player.removeCards(played);
         Message message = new PlayCardMessage(user, cardList, myType); // 有玩家出牌通知
         notifyComponent.sendToAllUserOfRoom(room.getId(), message);
         // 判断出的牌是否是炸弹或者王炸，如果是，则底分加倍
@@ -177,17 +233,19 @@ public class GameServiceImpl implements GameService {
             room.doubleMultiple();
         }
         RoundResult result = null;
-        if (player.getCards().size() == 0) { // 判断该玩家已经出完牌
+        if (player.getHand().isEmpty()) { // 判断该玩家已经出完牌
             if (isSpring(room, player)) {
                 room.doubleMultiple();
             }
             logger.info("[{}] 游戏结束，{} 获胜！", room.getId(), player.getIdentityName());
+            logger.info("[{}] 游戏记录：{}", room.getId(), room.getRecord().encode());
             result = getResult(room, player);
             room.reset();
         } else {
             logger.info("[{}] 玩家 {} 出牌，类型为 {}，下一个出牌者序号为：{}", room.getId(),
                     player.getUser().getUsername(), myType.getName(), player.getNextPlayerId());
             room.setPreCards(cardList);
+            room.setPreSignature(signature);
             room.setPrePlayerId(player.getId());
             room.incrStep();
             User nextUser = room.getUserByPlayerId(player.getNextPlayerId());  // 通知下一个玩家出牌
@@ -195,14 +253,19 @@ public class GameServiceImpl implements GameService {
         }
         room.setPrePlayTime(System.currentTimeMillis());
         roomComponent.updateRoom(room);
+        if (result != null) {
+            achievementService.countScore(user, result);
+            // 房间回到准备中，玩家的金币也已经变化
+            roomComponent.lobbyChanged(room);
+        }
         return result;
     }
 
-    @Override
-    public void pass(User user) {
-        Room room = roomComponent.getUserRoom(user.getId());
+    private void pass(Room room, User user) {
         Player player = room.getPlayerByUserId(user.getId());
+        validRound(room, player);
 
+        room.getRecord().pass(player.getId());
         removeNextPlayerRecentCards(room, player);
         room.incrStep();
         room.setPrePlayTime(System.currentTimeMillis());
@@ -215,6 +278,15 @@ public class GameServiceImpl implements GameService {
         notifyComponent.sendToAllUserOfRoom(room.getId(), new PassMessage(user));
     }
 
+    private void validRound(Room room, Player player) {
+        if (room.getStatus() != RoomStatusEnum.PLAYING) {
+            throw new BadRequestException("游戏还未开始");
+        }
+        if (room.getStepNum() == -1 || room.getCurrentPlayerId() != player.getId()) {
+            throw new ForbiddenException("当前不是该玩家出牌回合");
+        }
+    }
+
     private void startGame(Room room) {
         if (room.getStatus() == RoomStatusEnum.PLAYING) {
             throw new IllegalStateException("房间游戏已经开始了");
@@ -222,15 +294,17 @@ public class GameServiceImpl implements GameService {
         String roomId = room.getId();
         room.setStatus(RoomStatusEnum.PLAYING);  // 更新游戏状态为游戏中
 
-        // 构造 CardDistribution类，进行发牌
+        // 构造 CardDistribution类，进行发牌，发牌结果由种子决定并记录下来
         room.setDistribution(new CardDistribution());
         CardDistribution distribution = room.getDistribution();
         distribution.refresh();  // 洗牌
+        room.setRecord(new GameRecord(distribution.getSeed()));
+        room.setRules(RuleSet.forGame(room.getRuleVariant(), distribution.getSeed()));
+        room.setTracker(new CardTracker());
 
         List<Player> playerList = room.getPlayerList();
         for (Player player : playerList) {
-            List<Card> cards = distribution.getCards(player.getId());
-            player.setCards(cards);
+            player.setHand(distribution.getHand(player.getId()));
             player.setReady(false);
         }
         // 通知房间内所有的玩家客户端开始游戏
@@ -244,6 +318,7 @@ public class GameServiceImpl implements GameService {
         logger.info("[{}] 通知玩家 {} 叫牌", room.getId(), player.getUser().getUsername());
         notifyComponent.sendToUser(player.getUser().getId(), new BidMessage());
         roomComponent.updateRoom(room);
+        roomComponent.lobbyChanged(room);
     }
 
     /**
@@ -254,9 +329,9 @@ public class GameServiceImpl implements GameService {
      */
     private boolean isSpring(Room room, Player winner) {
         if (winner.isLandlord()) {
-            return room.getFarmers().stream().map(s -> s.getCards().size()).allMatch(s -> s == 17);
+            return room.getFarmers().stream().allMatch(s -> s.getCardSize() == 17);
         } else {
-            return room.getLandlord().getCards().size() == 20;
+            return room.getLandlord().getCardSize() == 20;
         }
     }
 
@@ -270,6 +345,14 @@ public class GameServiceImpl implements GameService {
         return result;
     }
 
+    private Hand toHand(List<Card> cardList) {
+        try {
+            return Hand.of(cardList);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("打出的牌存在重复或者不存在的牌");
+        }
+    }
+
     private void removeNextPlayerRecentCards(Room room, Player player) {
         Player nextPlayer = room.getPlayerById(player.getNextPlayerId());
         nextPlayer.clearRecentCards();
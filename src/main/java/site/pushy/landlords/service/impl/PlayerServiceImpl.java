@@ -2,17 +2,24 @@ package site.pushy.landlords.service.impl;
 
 import org.springframework.stereotype.Service;
 import site.pushy.landlords.common.exception.BadRequestException;
+import site.pushy.landlords.common.exception.ForbiddenException;
+import site.pushy.landlords.core.Hand;
+import site.pushy.landlords.core.PlaySignature;
+import site.pushy.landlords.core.component.BotComponent;
 import site.pushy.landlords.core.component.RoomComponent;
 import site.pushy.landlords.core.enums.IdentityEnum;
 import site.pushy.landlords.core.enums.RoomStatusEnum;
 import site.pushy.landlords.pojo.Card;
 import site.pushy.landlords.pojo.DO.User;
+import site.pushy.landlords.pojo.PlayHint;
 import site.pushy.landlords.pojo.Player;
 import site.pushy.landlords.pojo.Room;
 import site.pushy.landlords.service.PlayerService;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Pushy
@@ -21,9 +28,17 @@ import java.util.List;
 @Service
 public class PlayerServiceImpl implements PlayerService {
 
+    /**
+     * 每一回合最多提示的出牌数
+     */
+    private static final int MAX_HINTS = 20;
+
     @Resource
     private RoomComponent roomComponent;
 
+    @Resource
+    private BotComponent botComponent;
+
     @Override
     public List<Card> getPlayerCards(User curUser) {
         return roomComponent.getUserCards(curUser.getId());
@@ -31,7 +46,10 @@ public class PlayerServiceImpl implements PlayerService {
 
     @Override
     public boolean isPlayerRound(User curUser) {
-        Room room = roomComponent.getUserRoom(curUser.getId());
+        return isPlayerRound(roomComponent.getUserRoom(curUser.getId()), curUser);
+    }
+
+    private boolean isPlayerRound(Room room, User curUser) {
         if (room.getStatus() != RoomStatusEnum.PLAYING) {
             throw new BadRequestException("游戏还未开始");
         }
@@ -72,6 +90,19 @@ public class PlayerServiceImpl implements PlayerService {
         return room.getPrePlayerId() != player.getId();
     }
 
+    @Override
+    public boolean canPlay(User curUser) {
+        Room room = roomComponent.getUserRoom(curUser.getId());
+        if (room.getStatus() != RoomStatusEnum.PLAYING) {
+            throw new BadRequestException("游戏还未开始");
+        }
+        Player player = room.getPlayerByUserId(curUser.getId());
+        if (room.getPreSignature() == PlaySignature.NONE || room.getPrePlayerId() == player.getId()) {
+            return true;
+        }
+        return room.getRules().hasResponse(player.getIndex(), room.getPreSignature());
+    }
+
     @Override
     public boolean canBid(User curUser) {
         Room room = roomComponent.getUserRoom(curUser.getId());
@@ -85,4 +116,36 @@ public class PlayerServiceImpl implements PlayerService {
         }
         return player.getId() == room.getBiddingPlayer();
     }
+
+    @Override
+    public CompletableFuture<Integer> suggestBid(User curUser) {
+        Room room = roomComponent.getUserRoom(curUser.getId());
+        if (room.getStatus() != RoomStatusEnum.PLAYING || room.getStepNum() != -1) {
+            throw new BadRequestException("当前不是叫牌阶段");
+        }
+        return botComponent.bid(room.getPlayerByUserId(curUser.getId()));
+    }
+
+    @Override
+    public CompletableFuture<List<List<Card>>> getHint(User curUser) {
+        return roomComponent.submitToUserRoom(curUser.getId(), room -> {
+            if (!isPlayerRound(room, curUser)) {
+                throw new ForbiddenException("当前不是该玩家出牌回合");
+            }
+            int stepNum = room.getStepNum();
+            PlayHint hint = room.getHint();
+            if (hint != null && hint.getStepNum() == stepNum) {
+                return hint.getCandidates();
+            }
+            Player player = room.getPlayerByUserId(curUser.getId());
+            Hand hand = player.getHand();
+            long[] moves = botComponent.hint(room, player);
+            List<List<Card>> candidates = new ArrayList<>(Math.min(moves.length, MAX_HINTS));
+            for (int i = 0; i < moves.length && i < MAX_HINTS; i++) {
+                candidates.add(hand.select(moves[i]).toCards());
+            }
+            room.setHint(new PlayHint(stepNum, candidates));
+            return candidates;
+        });
+    }
 }
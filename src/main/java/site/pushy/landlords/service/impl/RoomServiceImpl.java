@@ -3,10 +3,12 @@ package site.pushy.landlords.service.impl;
 import org.springframework.stereotype.Service;
 import site.pushy.landlords.common.config.properties.LandlordsProperties;
 import site.pushy.landlords.common.exception.ForbiddenException;
+import site.pushy.landlords.common.exception.NotFoundException;
 import site.pushy.landlords.common.handler.WebSocketPushHandler;
 import site.pushy.landlords.core.component.NotifyComponent;
 import site.pushy.landlords.core.component.RoomComponent;
 import site.pushy.landlords.core.enums.RoomStatusEnum;
+import site.pushy.landlords.core.enums.RuleVariantEnum;
 import site.pushy.landlords.pojo.DO.User;
 import site.pushy.landlords.pojo.DTO.RoomDTO;
 import site.pushy.landlords.pojo.DTO.RoomOutDTO;
@@ -16,6 +18,7 @@ import site.pushy.landlords.pojo.ws.PlayerJoinMessage;
 import site.pushy.landlords.service.RoomService;
 
 import javax.annotation.Resource;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Pushy
@@ -55,34 +58,42 @@ public class RoomServiceImpl implements RoomService {
     }
 
     @Override
-    public Room createRoom(User curUser, String title, String password) {
-        return roomComponent.createRoom(curUser, title, password);
+    public Room createRoom(User curUser, String title, String password, RuleVariantEnum ruleVariant) {
+        return roomComponent.createRoom(curUser, title, password,
+                ruleVariant != null ? ruleVariant : RuleVariantEnum.STANDARD);
     }
 
     @Override
-    public String joinRoom(User curUser, RoomDTO roomDTO) {
+    public CompletableFuture<String> joinRoom(User curUser, RoomDTO roomDTO) {
         String roomId = roomDTO.getId();
         Room room = roomComponent.getRoom(roomDTO.getId());
-        if (room.getStatus() == RoomStatusEnum.PLAYING) {
-            throw new ForbiddenException("房间正在游戏中，无法加入!");
-        }
-        String roomPassword = roomDTO.getPassword();
-        String message = roomComponent.joinRoom(roomId, curUser, roomPassword);
+        return roomComponent.submit(room, () -> {
+            // 排队期间房间解散，房间号可能已经属于另一个房间
+            if (roomComponent.getRoom(roomId) != room) {
+                throw new NotFoundException("该房间不存在");
+            }
+            if (room.getStatus() == RoomStatusEnum.PLAYING) {
+                throw new ForbiddenException("房间正在游戏中，无法加入!");
+            }
+            String roomPassword = roomDTO.getPassword();
+            String message = roomComponent.joinRoom(roomId, curUser, roomPassword);
 
-        // 通知房间内的玩家客户端有新的玩家加入
-        notifyComponent.sendToAllUserOfRoom(roomId, new PlayerJoinMessage(curUser));
-        return message;
+            // 通知房间内的玩家客户端有新的玩家加入
+            notifyComponent.sendToAllUserOfRoom(roomId, new PlayerJoinMessage(curUser));
+            return message;
+        });
     }
 
     @Override
-    public boolean exitRoom(User curUser) {
-        Room room = roomComponent.getUserRoom(curUser.getId());
-        boolean hasRemove = roomComponent.exitRoom(room.getId(), curUser);
-        if (!hasRemove) {
-            // 通知房间内的玩家客户端有玩家退出
-            notifyComponent.sendToAllUserOfRoom(room.getId(), new PlayerExitMessage(curUser));
-        }
-        return hasRemove;
+    public CompletableFuture<Boolean> exitRoom(User curUser) {
+        return roomComponent.submitToUserRoom(curUser.getId(), room -> {
+            boolean hasRemove = roomComponent.exitRoom(room.getId(), curUser);
+            if (!hasRemove) {
+                // 通知房间内的玩家客户端有玩家退出
+                notifyComponent.sendToAllUserOfRoom(room.getId(), new PlayerExitMessage(curUser));
+            }
+            return hasRemove;
+        });
     }
 
     private void setCountdown(Room room, RoomOutDTO result) {
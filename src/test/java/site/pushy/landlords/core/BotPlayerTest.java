@@ -0,0 +1,117 @@
+package site.pushy.landlords.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BotPlayerTest {
+
+    @Test
+    public void bid() {
+        BotPlayer bot = new BotPlayer();
+        // 大王、小王、两张 2
+        Hand strong = Hand.EMPTY.add(54).add(53).add(1).add(14).add(2).add(16);
+        Assert.assertEquals(3, bot.bid(strong));
+        // 3、4、5、6
+        Hand weak = Hand.EMPTY.add(2).add(3).add(4).add(5);
+        Assert.assertEquals(0, bot.bid(weak));
+    }
+
+    /**
+     * 能够一次出完时直接出完，不压队友的牌
+     */
+    @Test
+    public void finishAndPartner() {
+        BotPlayer bot = new BotPlayer();
+        // 一对 4
+        Hand pair = Hand.EMPTY.add(3).add(16);
+        Assert.assertEquals(pair, bot.play(pair, PlaySignature.NONE, false, 17));
+        Assert.assertEquals(pair, bot.play(pair, PlaySignature.of(Hand.EMPTY.add(2).add(15)), true, 17));
+
+        // 4、5 管队友的 3
+        Hand hand = Hand.EMPTY.add(3).add(4);
+        long prev = PlaySignature.of(Hand.EMPTY.add(2));
+        Assert.assertEquals(Hand.EMPTY, bot.play(hand, prev, true, 17));
+        Assert.assertEquals(Hand.EMPTY.add(3), bot.play(hand, prev, false, 17));
+    }
+
+    /**
+     * 提示包含所有可以管住的出牌，炸弹排在最后
+     */
+    @Test
+    public void rank() {
+        // 4、5、6、6、6、6
+        Hand hand = Hand.EMPTY.add(3).add(4).add(5).add(18).add(31).add(44);
+        long prev = PlaySignature.of(Hand.EMPTY.add(2));
+        long[] ranked = BotPlayer.rank(hand.getHistogram(), prev);
+        long[] responses = MoveGenerator.responses(hand.getHistogram(),
+                PlaySignature.getPattern(prev), PlaySignature.getSize(prev));
+        Assert.assertEquals(responses.length, ranked.length);
+        Assert.assertEquals(GradeHistogram.unit(2), ranked[0]);
+        Assert.assertEquals(GradeHistogram.unit(4) * 4, ranked[ranked.length - 1]);
+
+        long[] leads = BotPlayer.rank(hand.getHistogram(), PlaySignature.NONE);
+        Assert.assertEquals(MoveGenerator.allMoves(hand).length, leads.length);
+    }
+
+    /**
+     * 癞子玩法的提示包含用癞子组成的出牌
+     */
+    @Test
+    public void rankLaizi() {
+        // 3 为癞子，手牌 3、5、5、9
+        RuleSet rules = RuleSet.laizi(1);
+        long hand = GradeHistogram.unit(1) + GradeHistogram.unit(3) * 2 + GradeHistogram.unit(7);
+        long prev = PlaySignature.of(GradeHistogram.unit(2) * 3);
+        long[] ranked = BotPlayer.rank(rules, hand, prev);
+        // 只能用癞子和一对 5 组成三张 5
+        Assert.assertEquals(1, ranked.length);
+        Assert.assertEquals(GradeHistogram.unit(1) + GradeHistogram.unit(3) * 2, ranked[0]);
+        Assert.assertEquals(0, BotPlayer.rank(hand, prev).length);
+
+        // 癞子当作 5 组成三带一，可以一次出完
+        Assert.assertEquals(hand, BotPlayer.rank(rules, hand, PlaySignature.NONE)[0]);
+    }
+
+    /**
+     * 三个机器人对局，每一手出牌都必须合法，并且最终有人出完牌
+     */
+    @Test
+    public void selfPlay() {
+        BotPlayer bot = new BotPlayer(0);
+        CardDistribution distribution = new CardDistribution(RandomSource.seeded(2019L));
+        for (int game = 0; game < 50; game++) {
+            distribution.refresh();
+            Hand[] hands = new Hand[3];
+            for (int i = 0; i < 3; i++) {
+                hands[i] = distribution.getHand(i + 1);
+            }
+            hands[0] = hands[0].addAll(distribution.getTopHand());
+
+            int current = 0;
+            int prePlayer = 0;
+            long prev = PlaySignature.NONE;
+            for (int turn = 0; ; turn++) {
+                Assert.assertTrue("对局没有结束", turn < 200);
+                boolean leading = prev == PlaySignature.NONE || prePlayer == current;
+                boolean partner = !leading && current != 0 && prePlayer != 0;
+                int opponents = current == 0 ? Math.min(hands[1].size(), hands[2].size()) : hands[0].size();
+                Hand play = bot.play(hands[current], leading ? PlaySignature.NONE : prev, partner, opponents);
+                if (!play.isEmpty()) {
+                    Assert.assertTrue(hands[current].containsAll(play));
+                    long signature = PlaySignature.of(play);
+                    Assert.assertNotEquals(PlaySignature.NONE, signature);
+                    Assert.assertTrue(leading || PlaySignature.beats(signature, prev));
+                    hands[current] = hands[current].removeAll(play);
+                    prev = signature;
+                    prePlayer = current;
+                    if (hands[current].isEmpty()) {
+                        break;
+                    }
+                } else {
+                    Assert.assertFalse("自由出牌时不能不出", leading);
+                }
+                current = (current + 1) % 3;
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package site.pushy.landlords.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CardDistributionTest {
+
+    @Test
+    public void refresh() {
+        CardDistribution distribution = new CardDistribution();
+        distribution.refresh();
+        long all = distribution.getTopHand().getMask();
+        Assert.assertEquals(3, distribution.getTopHand().size());
+        for (int number = 1; number <= 3; number++) {
+            Hand hand = distribution.getHand(number);
+            Assert.assertEquals(17, hand.size());
+            Assert.assertEquals(0, all & hand.getMask());
+            all |= hand.getMask();
+        }
+        Assert.assertEquals(Hand.FULL_MASK, all);
+    }
+
+    @Test
+    public void seeded() {
+        CardDistribution first = new CardDistribution(RandomSource.seeded(20190101L));
+        CardDistribution second = new CardDistribution(RandomSource.seeded(20190101L));
+        for (int i = 0; i < 3; i++) {
+            first.refresh();
+            second.refresh();
+            Assert.assertEquals(first.getTopHand(), second.getTopHand());
+            for (int number = 1; number <= 3; number++) {
+                Assert.assertEquals(first.getHand(number), second.getHand(number));
+            }
+        }
+    }
+
+    /**
+     * 默认构造的发牌可以通过记录下的种子复现
+     */
+    @Test
+    public void defaultSeedReplays() {
+        CardDistribution distribution = new CardDistribution();
+        distribution.refresh();
+        CardDistribution replay = new CardDistribution(distribution.getSeed());
+        replay.refresh();
+        Assert.assertEquals(distribution.getTopHand(), replay.getTopHand());
+        for (int number = 1; number <= 3; number++) {
+            Assert.assertEquals(distribution.getHand(number), replay.getHand(number));
+        }
+    }
+
+    /**
+     * 大王出现在底牌中的概率应为 3 / 54
+     */
+    @Test
+    public void uniform() {
+        CardDistribution distribution = new CardDistribution(RandomSource.seeded(7L));
+        int rounds = 54000, top = 0;
+        for (int i = 0; i < rounds; i++) {
+            distribution.refresh();
+            if (distribution.getTopHand().contains(54)) {
+                top++;
+            }
+        }
+        Assert.assertEquals(3000, top, 300);
+    }
+}
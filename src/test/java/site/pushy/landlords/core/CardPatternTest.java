@@ -0,0 +1,109 @@
+package site.pushy.landlords.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.pushy.landlords.core.enums.CardGradeEnum;
+import site.pushy.landlords.core.enums.TypeEnum;
+import site.pushy.landlords.pojo.Card;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static site.pushy.landlords.core.enums.CardGradeEnum.*;
+
+public class CardPatternTest {
+
+    @Test
+    public void classify() {
+        assertPattern(TypeEnum.SINGLE, 2, 1, SECOND);
+        assertPattern(TypeEnum.PAIR, 2, 1, SECOND, SECOND);
+        assertPattern(TypeEnum.JOKER_BOMB, 15, 1, FIFTEENTH, FOURTEENTH);
+        assertPattern(TypeEnum.THREE_WITH_ONE, 5, 1, FIRST, FIFTH, FIFTH, FIFTH);
+        assertPattern(TypeEnum.THREE_WITH_PAIR, 2, 1, SECOND, SECOND, SECOND, FIRST, FIRST);
+        assertPattern(TypeEnum.FOUR_WITH_TWO, 2, 1, FIRST, SECOND, SECOND, SECOND, SECOND, THIRD);
+        assertPattern(TypeEnum.BOMB, 2, 1, SECOND, SECOND, SECOND, SECOND);
+        // 10 J Q K A
+        assertPattern(TypeEnum.STRAIGHT, 12, 5, TWELFTH, EIGHTH, NINTH, TENTH, ELEVENTH);
+        // 3 3 4 4 5 5
+        assertPattern(TypeEnum.STRAIGHT_PAIR, 3, 3, FIRST, FIRST, SECOND, SECOND, THIRD, THIRD);
+        // 3 3 3 4 4 4
+        assertPattern(TypeEnum.AIRCRAFT, 2, 2, FIRST, FIRST, FIRST, SECOND, SECOND, SECOND);
+        // 3 3 3 4 4 4 8 10
+        assertPattern(TypeEnum.AIRCRAFT_WITH_WINGS, 2, 2, FIRST, FIRST, FIRST, SECOND, SECOND, SECOND, SIXTH, EIGHTH);
+    }
+
+    @Test
+    public void classifyIllegal() {
+        Assert.assertEquals(CardPattern.ILLEGAL, CardPattern.of(new ArrayList<>()));
+        // J Q K A 2
+        Assert.assertEquals(CardPattern.ILLEGAL, CardPattern.of(buildCards(NINTH, TENTH, ELEVENTH, TWELFTH, THIRTEENTH)));
+        // 3 3 4 4
+        Assert.assertEquals(CardPattern.ILLEGAL, CardPattern.of(buildCards(FIRST, FIRST, SECOND, SECOND)));
+        // 一副牌中不存在 5 张同等级的牌
+        Assert.assertEquals(CardPattern.ILLEGAL, CardPattern.of(buildCards(FIRST, FIRST, FIRST, FIRST, FIRST)));
+        // 未设置等级的牌
+        Assert.assertEquals(CardPattern.ILLEGAL, CardPattern.of(Arrays.asList(new Card(), new Card())));
+    }
+
+    /**
+     * 穷举 6 张以内所有等级组合，与 TypeJudgement 的判定结果保持一致
+     */
+    @Test
+    public void sameAsTypeJudgement() {
+        enumerate(new int[GradeHistogram.MAX_GRADE + 1], GradeHistogram.MIN_GRADE, 6);
+    }
+
+    private void enumerate(int[] counts, int grade, int left) {
+        if (grade > GradeHistogram.MAX_GRADE) {
+            List<Card> cards = new ArrayList<>();
+            for (int g = GradeHistogram.MIN_GRADE; g <= GradeHistogram.MAX_GRADE; g++) {
+                for (int i = 0; i < counts[g]; i++) {
+                    cards.add(new Card(CardGradeEnum.values()[g - 1]));
+                }
+            }
+            if (!cards.isEmpty()) {
+                Assert.assertEquals(cards.toString(), judge(cards), CardUtils.getCardsType(cards));
+            }
+            return;
+        }
+        int max = Math.min(grade >= 14 ? 1 : 4, left);
+        for (int count = 0; count <= max; count++) {
+            counts[grade] = count;
+            enumerate(counts, grade + 1, left - count);
+        }
+        counts[grade] = 0;
+    }
+
+    /**
+     * 按照原有的判定顺序依次调用 TypeJudgement 判断牌型
+     */
+    static TypeEnum judge(List<Card> cards) {
+        if (TypeJudgement.isSingle(cards)) return TypeEnum.SINGLE;
+        if (TypeJudgement.isPair(cards)) return TypeEnum.PAIR;
+        if (TypeJudgement.isThree(cards)) return TypeEnum.THREE;
+        if (TypeJudgement.isThreeWithOne(cards)) return TypeEnum.THREE_WITH_ONE;
+        if (TypeJudgement.isThreeWithPair(cards)) return TypeEnum.THREE_WITH_PAIR;
+        if (TypeJudgement.isStraight(cards)) return TypeEnum.STRAIGHT;
+        if (TypeJudgement.isStraightPair(cards)) return TypeEnum.STRAIGHT_PAIR;
+        if (TypeJudgement.isFourWithTwo(cards)) return TypeEnum.FOUR_WITH_TWO;
+        if (TypeJudgement.isBomb(cards)) return TypeEnum.BOMB;
+        if (TypeJudgement.isJokerBomb(cards)) return TypeEnum.JOKER_BOMB;
+        if (TypeJudgement.isAircraft(cards)) return TypeEnum.AIRCRAFT;
+        if (TypeJudgement.isAircraftWithWing(cards)) return TypeEnum.AIRCRAFT_WITH_WINGS;
+        return null;
+    }
+
+    private void assertPattern(TypeEnum type, int rank, int length, CardGradeEnum... grades) {
+        int pattern = CardPattern.of(buildCards(grades));
+        Assert.assertEquals(type, CardPattern.getType(pattern));
+        Assert.assertEquals(rank, CardPattern.getRank(pattern));
+        Assert.assertEquals(length, CardPattern.getLength(pattern));
+    }
+
+    private List<Card> buildCards(CardGradeEnum... arr) {
+        return Arrays.stream(arr).map(Card::new)
+                .collect(Collectors.toList());
+    }
+}
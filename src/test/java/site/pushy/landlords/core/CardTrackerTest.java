@@ -0,0 +1,25 @@
+package site.pushy.landlords.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CardTrackerTest {
+
+    @Test
+    public void record() {
+        CardTracker tracker = new CardTracker();
+        Assert.assertArrayEquals(new int[]{4, 4, 4, 4, 4, 4, 4, 4, 4, 4, 4, 4, 4, 1, 1}, tracker.toArray());
+
+        // 一对 3、大王
+        tracker.record(Hand.EMPTY.add(2).add(15));
+        tracker.record(Hand.EMPTY.add(54));
+        Assert.assertEquals(2, tracker.count(1));
+        Assert.assertEquals(0, tracker.count(15));
+        Assert.assertEquals(51, GradeHistogram.size(tracker.getRemaining()));
+
+        // 手中还有一张 3 时，其他人只剩一张 3
+        long unseen = tracker.unseen(Hand.EMPTY.add(28));
+        Assert.assertEquals(1, GradeHistogram.count(unseen, 1));
+        Assert.assertEquals(50, GradeHistogram.size(unseen));
+    }
+}
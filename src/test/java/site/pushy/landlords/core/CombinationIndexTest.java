@@ -0,0 +1,84 @@
+package site.pushy.landlords.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.pushy.landlords.pojo.Player;
+
+import java.util.Random;
+
+public class CombinationIndexTest {
+
+    @Test
+    public void runs() {
+        // 3 4 5 各两张，7 8 10 各一张，9 三张，一张 A，大小王
+        long histogram = GradeHistogram.unit(1) * 2 + GradeHistogram.unit(2) * 2 + GradeHistogram.unit(3) * 2
+                + GradeHistogram.unit(5) + GradeHistogram.unit(6) + GradeHistogram.unit(7) * 3
+                + GradeHistogram.unit(8) + GradeHistogram.unit(12)
+                + GradeHistogram.unit(14) + GradeHistogram.unit(15);
+        CombinationIndex index = CombinationIndex.of(histogram);
+        Assert.assertEquals(1 << 1 | 1 << 5 | 1 << 12, index.runStarts(1));
+        Assert.assertEquals(1 << 3 | 1 << 8 | 1 << 12, index.runEnds(1));
+        Assert.assertEquals(4, index.longestRun(1));
+        Assert.assertEquals(3, index.longestRun(2));
+        Assert.assertEquals(1, index.longestRun(3));
+        Assert.assertEquals(1 << 7, index.exactly(3));
+        Assert.assertEquals(1 << 1 | 1 << 2 | 1 << 3, index.exactly(2));
+        Assert.assertTrue(index.hasJokerBomb());
+
+        index.remove(15);
+        index.remove(2);
+        Assert.assertFalse(index.hasJokerBomb());
+        Assert.assertEquals(1 << 1 | 1 << 3 | 1 << 7, index.pairs());
+        Assert.assertEquals(1 << 1 | 1 << 5 | 1 << 12, index.runStarts(1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void removeMissing() {
+        CombinationIndex.of(GradeHistogram.EMPTY).remove(1);
+    }
+
+    @Test
+    public void incremental() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            Hand hand = Hand.EMPTY;
+            while (hand.size() < 20) {
+                hand = hand.add(random.nextInt(Hand.DECK_SIZE) + 1);
+            }
+            Player player = new Player(1);
+            player.setHand(hand);
+            while (!player.getHand().isEmpty()) {
+                long mask = player.getHand().getMask();
+                Hand played = Hand.EMPTY;
+                for (int i = random.nextInt(4); i >= 0 && mask != 0; i--) {
+                    int id = Long.numberOfTrailingZeros(mask) + 1;
+                    played = played.add(id);
+                    mask &= mask - 1;
+                }
+                player.removeCards(played);
+                assertConsistent(player);
+            }
+            player.addCards(hand);
+            player.addCards(hand);
+            assertConsistent(player);
+        }
+    }
+
+    private static void assertConsistent(Player player) {
+        CombinationIndex index = player.getIndex();
+        long histogram = player.getHand().getHistogram();
+        Assert.assertEquals(histogram, index.getHistogram());
+        MoveGenerator.Counts counts = new MoveGenerator.Counts(histogram);
+        Assert.assertEquals(counts.atLeast1, index.atLeast(1));
+        Assert.assertEquals(counts.atLeast2, index.atLeast(2));
+        Assert.assertEquals(counts.atLeast3, index.atLeast(3));
+        Assert.assertEquals(counts.fours, index.bombs());
+        // 两种判断方式的结果相同
+        long single = PlaySignature.of(Hand.EMPTY.add(3));
+        long pair = PlaySignature.of(Hand.EMPTY.add(3).add(16));
+        Assert.assertEquals(GradeComparison.hasHighGradeCards(player.getHand(), single),
+                GradeComparison.hasHighGradeCards(index, single));
+        Assert.assertEquals(GradeComparison.hasHighGradeCards(player.getHand(), pair),
+                GradeComparison.hasHighGradeCards(index, pair));
+    }
+}
@@ -0,0 +1,64 @@
+package site.pushy.landlords.core;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+import site.pushy.landlords.core.enums.CardGradeEnum;
+import site.pushy.landlords.core.enums.CardNumberEnum;
+import site.pushy.landlords.core.enums.CardTypeEnum;
+import site.pushy.landlords.pojo.Card;
+
+import java.io.IOException;
+import java.util.List;
+
+public class ConstructCardTest {
+
+    @Test
+    public void getCard() {
+        // 方块 2、方块 3、方块 A、梅花 2、黑桃 A、小王、大王
+        assertCard(1, CardTypeEnum.DIAMOND, CardNumberEnum.TWO, CardGradeEnum.THIRTEENTH);
+        assertCard(2, CardTypeEnum.DIAMOND, CardNumberEnum.THREE, CardGradeEnum.FIRST);
+        assertCard(13, CardTypeEnum.DIAMOND, CardNumberEnum.ONE, CardGradeEnum.TWELFTH);
+        assertCard(14, CardTypeEnum.CLUB, CardNumberEnum.TWO, CardGradeEnum.THIRTEENTH);
+        assertCard(52, CardTypeEnum.SPADE, CardNumberEnum.ONE, CardGradeEnum.TWELFTH);
+        assertCard(53, CardTypeEnum.SMALL_JOKER, CardNumberEnum.SMALL_JOKER, CardGradeEnum.FOURTEENTH);
+        assertCard(54, CardTypeEnum.BIG_JOKER, CardNumberEnum.BIG_JOKER, CardGradeEnum.FIFTEENTH);
+    }
+
+    @Test
+    public void canonicalInstances() {
+        for (int id = 1; id <= Hand.DECK_SIZE; id++) {
+            Assert.assertSame(ConstructCard.getCard(id), ConstructCard.getCard(id));
+            Assert.assertSame(ConstructCard.getCard(id), Card.of(id));
+            Assert.assertEquals(id, ConstructCard.getCard(id).hashCode());
+        }
+        Assert.assertNotEquals(ConstructCard.getCard(2), ConstructCard.getCard(15));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void illegalId() {
+        ConstructCard.getCard(55);
+    }
+
+    /**
+     * 反序列化只以 id 为准，得到的是唯一的牌对象
+     */
+    @Test
+    public void deserialize() throws IOException {
+        String json = "[{\"id\":2,\"type\":\"SPADE\",\"number\":\"KING\",\"grade\":\"FIFTEENTH\",\"gradeValue\":15},{\"id\":54}]";
+        List<Card> cards = new ObjectMapper().readValue(json, new TypeReference<List<Card>>() {
+        });
+        Assert.assertSame(ConstructCard.getCard(2), cards.get(0));
+        Assert.assertSame(ConstructCard.getCard(54), cards.get(1));
+        Assert.assertEquals(CardGradeEnum.FIRST, cards.get(0).getGrade());
+    }
+
+    private void assertCard(int id, CardTypeEnum type, CardNumberEnum number, CardGradeEnum grade) {
+        Card card = ConstructCard.getCard(id);
+        Assert.assertEquals(id, card.getId());
+        Assert.assertEquals(type, card.getType());
+        Assert.assertEquals(number, card.getNumber());
+        Assert.assertEquals(grade, card.getGrade());
+    }
+}
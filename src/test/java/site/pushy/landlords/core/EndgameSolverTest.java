@@ -0,0 +1,109 @@
+package site.pushy.landlords.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.pushy.landlords.pojo.Card;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+public class EndgameSolverTest {
+
+    private final EndgameSolver solver = new EndgameSolver(TimeUnit.SECONDS.toNanos(10));
+
+    /**
+     * 地主一手王炸可以出完
+     */
+    @Test
+    public void finish() {
+        long[] hands = {
+                Hand.EMPTY.add(53).add(54).getHistogram(),
+                Hand.EMPTY.add(1).getHistogram(),
+                Hand.EMPTY.add(2).getHistogram()
+        };
+        EndgameSolver.Solution solution = solver.solve(hands, 0, 0, 0, PlaySignature.NONE);
+        Assert.assertTrue(solution.isSolved());
+        Assert.assertTrue(solution.isLandlordWin());
+        Assert.assertEquals(hands[0], solution.getMove());
+    }
+
+    /**
+     * 与不带置换表和出牌排序的穷举结果一致
+     */
+    @Test
+    public void sameAsBruteForce() {
+        SplittableRandom random = new SplittableRandom(2019L);
+        for (int round = 0; round < 300; round++) {
+            CardDistribution distribution = new CardDistribution(RandomSource.seeded(random.nextLong()));
+            distribution.refresh();
+            long[] hands = new long[3];
+            for (int i = 0; i < 3; i++) {
+                Hand hand = distribution.getHand(i + 1);
+                hands[i] = randomCards(hand, 1 + random.nextInt(4), random);
+            }
+            int landlord = random.nextInt(3);
+            int current = random.nextInt(3);
+            EndgameSolver.Solution solution = solver.solve(hands, landlord, current, current, PlaySignature.NONE);
+            Assert.assertTrue(solution.isSolved());
+            Assert.assertEquals(bruteForce(hands, landlord, current, current, CardPattern.ILLEGAL, 0),
+                    solution.isLandlordWin());
+            // 给出的出牌确实能达到求解的结果
+            long[] after = hands.clone();
+            after[current] -= solution.getMove();
+            boolean expected = after[current] == 0 ? current == landlord
+                    : bruteForce(after, landlord, (current + 1) % 3, current,
+                    PatternTable.standard().lookup(solution.getMove()), GradeHistogram.size(solution.getMove()));
+            Assert.assertEquals(solution.isLandlordWin(), expected);
+        }
+    }
+
+    @Test
+    public void budget() {
+        CardDistribution distribution = new CardDistribution(RandomSource.seeded(1L));
+        distribution.refresh();
+        long[] hands = new long[3];
+        for (int i = 0; i < 3; i++) {
+            hands[i] = distribution.getHand(i + 1).getHistogram();
+        }
+        EndgameSolver limited = new EndgameSolver(TimeUnit.MILLISECONDS.toNanos(1));
+        long start = System.nanoTime();
+        Assert.assertFalse(limited.solve(hands, 0, 0, 0, PlaySignature.NONE).isSolved());
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    private static long randomCards(Hand hand, int count, SplittableRandom random) {
+        while (hand.size() > count) {
+            List<Card> cards = hand.toCards();
+            hand = hand.remove(cards.get(random.nextInt(cards.size())).getId());
+        }
+        return hand.getHistogram();
+    }
+
+    private static boolean bruteForce(long[] hands, int landlord, int current, int prePlayer,
+                                      int prevPattern, int prevSize) {
+        boolean leading = prePlayer == current;
+        List<Long> moves = new ArrayList<>();
+        if (leading) {
+            MoveGenerator.forEachMove(hands[current], moves::add);
+        } else {
+            MoveGenerator.forEachResponse(hands[current], prevPattern, prevSize, moves::add);
+        }
+        boolean maximizing = current == landlord;
+        for (long move : moves) {
+            long[] next = hands.clone();
+            next[current] -= move;
+            boolean result = next[current] == 0 ? maximizing
+                    : bruteForce(next, landlord, (current + 1) % 3, current,
+                    PatternTable.standard().lookup(move), GradeHistogram.size(move));
+            if (result == maximizing) {
+                return maximizing;
+            }
+        }
+        if (!leading && bruteForce(hands, landlord, (current + 1) % 3, prePlayer, prevPattern, prevSize) == maximizing) {
+            return maximizing;
+        }
+        return !maximizing;
+    }
+}
@@ -0,0 +1,70 @@
+package site.pushy.landlords.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GameRecordTest {
+
+    @Test
+    public void sameSeedSameDeal() {
+        CardDistribution first = new CardDistribution(42L);
+        CardDistribution second = new CardDistribution(42L);
+        first.refresh();
+        second.refresh();
+        for (int number = 1; number <= 3; number++) {
+            Assert.assertEquals(first.getHand(number), second.getHand(number));
+        }
+        Assert.assertEquals(first.getTopHand(), second.getTopHand());
+    }
+
+    @Test
+    public void encodeAndReplay() {
+        CardDistribution distribution = new CardDistribution();
+        distribution.refresh();
+        GameRecord record = new GameRecord(distribution.getSeed());
+        record.bid(2, 3);
+        Hand[] hands = {
+                distribution.getHand(1),
+                distribution.getHand(2).addAll(distribution.getTopHand()),
+                distribution.getHand(3)
+        };
+        // 三个玩家轮流每次打出手中最小的一张牌，每轮第三个玩家不出
+        int turns = 0;
+        for (int round = 0; round < 16; round++) {
+            for (int id = 1; id <= 3; id++) {
+                if (id == 3 && round % 2 == 0) {
+                    record.pass(id);
+                } else {
+                    Hand single = Hand.EMPTY.add(Long.numberOfTrailingZeros(hands[id - 1].getMask()) + 1);
+                    record.play(id, single);
+                    hands[id - 1] = hands[id - 1].removeAll(single);
+                }
+                turns++;
+            }
+        }
+
+        String text = record.encode();
+        Assert.assertTrue(record.toBytes().length < 400);
+        GameRecord decoded = GameRecord.decode(text);
+        Assert.assertEquals(record.getSeed(), decoded.getSeed());
+        Assert.assertEquals(2, decoded.getLandlord());
+        Assert.assertEquals(3, decoded.getScore());
+        Assert.assertEquals(turns, decoded.getTurnCount());
+        Assert.assertArrayEquals(hands, decoded.replay());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void replayForeignCards() {
+        CardDistribution distribution = new CardDistribution(7L);
+        distribution.refresh();
+        GameRecord record = new GameRecord(7L);
+        record.bid(1, 1);
+        record.play(1, distribution.getHand(2));
+        record.replay();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalData() {
+        GameRecord.fromBytes(new byte[]{9});
+    }
+}
@@ -1,14 +1,89 @@
 package site.pushy.landlords.core;
 
+import org.junit.Assert;
 import org.junit.Test;
+import site.pushy.landlords.core.enums.CardGradeEnum;
+import site.pushy.landlords.pojo.Card;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static site.pushy.landlords.core.enums.CardGradeEnum.*;
 
 public class GradeComparisonTest {
 
     @Test
     public void canPlayCards() {
+        Assert.assertTrue(canPlayCards(buildCards(SECOND), buildCards(FIRST)));
+        Assert.assertFalse(canPlayCards(buildCards(FIRST), buildCards(FIRST)));
+        // 3 带 1 比较三张的等级，与带的牌无关
+        Assert.assertTrue(canPlayCards(buildCards(FIRST, FOURTH, FOURTH, FOURTH), buildCards(TWELFTH, THIRD, THIRD, THIRD)));
+        // 顺子的张数不同时无法比较
+        Assert.assertFalse(canPlayCards(buildCards(SECOND, THIRD, FOURTH, FIFTH, SIXTH, SEVENTH),
+                buildCards(FIRST, SECOND, THIRD, FOURTH, FIFTH)));
+        // 飞机：4 4 4 5 5 5 可以管住 3 3 3 4 4 4，长度不同时不能比较
+        Assert.assertTrue(canPlayCards(buildCards(SECOND, SECOND, SECOND, THIRD, THIRD, THIRD),
+                buildCards(FIRST, FIRST, FIRST, SECOND, SECOND, SECOND)));
+        Assert.assertFalse(canPlayCards(buildCards(FIRST, FIRST, FIRST, SECOND, SECOND, SECOND),
+                buildCards(SECOND, SECOND, SECOND, THIRD, THIRD, THIRD)));
+        Assert.assertFalse(canPlayCards(buildCards(FIFTH, FIFTH, FIFTH, SIXTH, SIXTH, SIXTH, SEVENTH, SEVENTH, SEVENTH),
+                buildCards(SECOND, SECOND, SECOND, THIRD, THIRD, THIRD)));
+        // 炸弹与王炸
+        Assert.assertTrue(canPlayCards(buildCards(FIRST, FIRST, FIRST, FIRST), buildCards(THIRTEENTH, THIRTEENTH)));
+        Assert.assertFalse(canPlayCards(buildCards(FIRST, FIRST, FIRST, FIRST), buildCards(SECOND, SECOND, SECOND, SECOND)));
+        Assert.assertTrue(canPlayCards(buildCards(FOURTEENTH, FIFTEENTH), buildCards(SECOND, SECOND, SECOND, SECOND)));
+        Assert.assertFalse(canPlayCards(buildCards(THIRTEENTH, THIRTEENTH), buildCards(FOURTEENTH, FIFTEENTH)));
+    }
+
+    /**
+     * 比较时不能修改传入的牌列表，例如房间中保存的上家出的牌
+     */
+    @Test
+    public void canPlayCardsKeepsOrder() {
+        List<Card> myCards = buildCards(THIRD, SECOND, SECOND, SECOND);
+        List<Card> prevCards = buildCards(SIXTH, FIRST, FIRST, FIRST);
+        List<Card> myCopy = new ArrayList<>(myCards);
+        List<Card> prevCopy = new ArrayList<>(prevCards);
+        Assert.assertTrue(canPlayCards(myCards, prevCards));
+        for (int i = 0; i < myCards.size(); i++) {
+            Assert.assertSame(myCopy.get(i), myCards.get(i));
+            Assert.assertSame(prevCopy.get(i), prevCards.get(i));
+        }
     }
 
     @Test
     public void hasHighGradeCards() {
+        List<Card> myCards = buildCards(FIRST, SECOND, SECOND, FIFTH, FIFTH, FIFTH, TWELFTH);
+        // 单张 A 只能用 2 以上的牌管住
+        Assert.assertFalse(hasHighGradeCards(myCards, TWELFTH));
+        Assert.assertTrue(hasHighGradeCards(myCards, ELEVENTH));
+        // 对子 4 可以用 7 7 管住，三带一可以用 7 7 7 带 3 管住
+        Assert.assertTrue(hasHighGradeCards(myCards, SECOND, SECOND));
+        Assert.assertTrue(hasHighGradeCards(myCards, FOURTH, FOURTH, FOURTH, FIRST));
+        Assert.assertFalse(hasHighGradeCards(myCards, SIXTH, SIXTH, SIXTH, FIRST));
+        // 没有顺子
+        Assert.assertFalse(hasHighGradeCards(myCards, FIRST, SECOND, THIRD, FOURTH, FIFTH));
+        // 炸弹可以管住任何非炸弹的牌，王炸可以管住炸弹
+        List<Card> bombs = buildCards(FIRST, FIRST, FIRST, FIRST, FOURTEENTH, FIFTEENTH);
+        Assert.assertTrue(hasHighGradeCards(bombs, TWELFTH, TWELFTH, TWELFTH, TWELFTH, ELEVENTH, NINTH));
+        Assert.assertTrue(hasHighGradeCards(bombs, THIRTEENTH, THIRTEENTH, THIRTEENTH, THIRTEENTH));
+        Assert.assertFalse(hasHighGradeCards(bombs, FOURTEENTH, FIFTEENTH));
+    }
+
+    private boolean canPlayCards(List<Card> myCards, List<Card> prevCards) {
+        return GradeComparison.canPlayCards(myCards, CardUtils.getCardsType(myCards),
+                prevCards, CardUtils.getCardsType(prevCards));
+    }
+
+    private boolean hasHighGradeCards(List<Card> myCards, CardGradeEnum... prevGrades) {
+        List<Card> prevCards = buildCards(prevGrades);
+        return GradeComparison.hasHighGradeCards(myCards, prevCards, CardUtils.getCardsType(prevCards));
+    }
+
+    private List<Card> buildCards(CardGradeEnum... arr) {
+        return Arrays.stream(arr).map(Card::new)
+                .collect(Collectors.toList());
     }
 }
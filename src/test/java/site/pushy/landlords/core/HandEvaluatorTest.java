@@ -0,0 +1,79 @@
+package site.pushy.landlords.core;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+public class HandEvaluatorTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    private final ForkJoinPool singlePool = new ForkJoinPool(1);
+
+    private final HandEvaluator evaluator = new HandEvaluator(pool, 4000, TimeUnit.SECONDS.toNanos(10));
+
+    @After
+    public void shutdown() {
+        pool.shutdownNow();
+        singlePool.shutdownNow();
+    }
+
+    /**
+     * 同一个种子发到的手牌相同，使用同一个种子评估的结果也相同
+     */
+    @Test
+    public void seeded() {
+        Hand hand = deal(2019L);
+        Assert.assertEquals(17, hand.size());
+        Assert.assertEquals(hand.getMask(), deal(2019L).getMask());
+
+        HandEvaluator.Evaluation first = evaluator.evaluate(hand, 42L);
+        HandEvaluator.Evaluation second = evaluator.evaluate(deal(2019L), 42L);
+        Assert.assertEquals(4000, first.getRollouts());
+        Assert.assertEquals(first.getWins(), second.getWins());
+        Assert.assertEquals(first.suggestBid(), second.suggestBid());
+        Assert.assertEquals(first.getWins(), evaluator.evaluateAsync(hand, 42L).join().getWins());
+    }
+
+    /**
+     * 双王、四个 2 和一个炸弹的手牌应该叫 3 分，零散的小牌不叫
+     */
+    @Test
+    public void suggestBid() {
+        Hand strong = Hand.EMPTY.add(54).add(53)
+                .add(1).add(14).add(27).add(40)
+                .add(12).add(25).add(38).add(51)
+                .add(2).add(3).add(4).add(5).add(6).add(7).add(8);
+        HandEvaluator.Evaluation evaluation = evaluator.evaluate(strong, 1L);
+        Assert.assertTrue(evaluation.toString(), evaluation.getWinRate() > 0.75);
+        Assert.assertEquals(3, evaluation.suggestBid());
+
+        Hand weak = Hand.EMPTY.add(2).add(16).add(4).add(18).add(6).add(20).add(8)
+                .add(22).add(10).add(24).add(29).add(31).add(33).add(35).add(37).add(39).add(47);
+        HandEvaluator.Evaluation weakEvaluation = evaluator.evaluate(weak, 1L);
+        Assert.assertEquals(0, weakEvaluation.suggestBid());
+        Assert.assertTrue(evaluation.getWinRate() > weakEvaluation.getWinRate());
+
+        // 随机发到的手牌强度介于两者之间
+        HandEvaluator.Evaluation dealt = evaluator.evaluate(deal(2019L), 1L);
+        Assert.assertTrue(dealt.toString(), dealt.getWinRate() <= evaluation.getWinRate());
+        Assert.assertTrue(dealt.toString(), dealt.getWinRate() >= weakEvaluation.getWinRate());
+    }
+
+    @Test
+    public void budget() {
+        HandEvaluator limited = new HandEvaluator(singlePool, Integer.MAX_VALUE, 0);
+        HandEvaluator.Evaluation evaluation = limited.evaluate(Hand.EMPTY.add(54), 1L);
+        Assert.assertTrue(evaluation.getRollouts() > 0);
+        Assert.assertTrue(evaluation.getRollouts() < Integer.MAX_VALUE);
+    }
+
+    private static Hand deal(long seed) {
+        CardDistribution distribution = new CardDistribution(RandomSource.seeded(seed));
+        distribution.refresh();
+        return distribution.getHand(1);
+    }
+}
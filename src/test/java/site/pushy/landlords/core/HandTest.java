@@ -0,0 +1,95 @@
+package site.pushy.landlords.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.pushy.landlords.pojo.Card;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class HandTest {
+
+    @Test
+    public void addAndRemove() {
+        // 红桃 3、梅花 3、大王
+        Hand hand = Hand.EMPTY.add(28).add(15).add(54);
+        Assert.assertEquals(3, hand.size());
+        Assert.assertEquals(2, hand.count(1));
+        Assert.assertEquals(1, hand.count(15));
+        Assert.assertTrue(hand.contains(28));
+
+        hand = hand.remove(28);
+        Assert.assertEquals(2, hand.size());
+        Assert.assertEquals(1, hand.count(1));
+        Assert.assertFalse(hand.contains(28));
+        // 不持有的牌移除后不变
+        Assert.assertSame(hand, hand.remove(28));
+    }
+
+    @Test
+    public void addAllAndRemoveAll() {
+        Hand hand = Hand.ofMask(Hand.FULL_MASK);
+        Assert.assertEquals(Hand.DECK_SIZE, hand.size());
+        for (int grade = 1; grade <= 13; grade++) {
+            Assert.assertEquals(4, hand.count(grade));
+        }
+
+        Hand played = Hand.EMPTY.add(1).add(14).add(53);
+        Hand rest = hand.removeAll(played);
+        Assert.assertEquals(51, rest.size());
+        Assert.assertFalse(rest.containsAll(played));
+        Assert.assertEquals(hand, rest.addAll(played));
+        Assert.assertEquals(GradeHistogram.size(rest.getHistogram()), rest.size());
+    }
+
+    /**
+     * 出牌时以位图判断玩家是否持有打出的每一张牌
+     */
+    @Test
+    public void containsAll() {
+        Hand hand = Hand.EMPTY.add(2).add(15).add(28).add(53);
+        Assert.assertTrue(hand.containsAll(Hand.EMPTY.add(15).add(28)));
+        Assert.assertTrue(hand.containsAll(Hand.EMPTY));
+        // 同等级但花色不同的牌
+        Assert.assertFalse(hand.containsAll(Hand.EMPTY.add(15).add(41)));
+        Assert.assertFalse(hand.containsAll(Hand.EMPTY.add(54)));
+    }
+
+    @Test
+    public void select() {
+        // 方块 3、梅花 3、红桃 3、小王
+        Hand hand = Hand.EMPTY.add(2).add(15).add(28).add(53);
+        Hand pair = hand.select(GradeHistogram.unit(1) * 2);
+        Assert.assertEquals(Hand.EMPTY.add(2).add(15), pair);
+        Assert.assertEquals(GradeHistogram.unit(1) * 2, pair.getHistogram());
+        Assert.assertEquals(Hand.EMPTY, hand.select(GradeHistogram.EMPTY));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void selectMissing() {
+        Hand.EMPTY.add(2).add(53).select(GradeHistogram.unit(15));
+    }
+
+    @Test
+    public void toCards() {
+        // 方块 3、大王、方块 A
+        Hand hand = Hand.EMPTY.add(2).add(54).add(13);
+        List<Card> cards = hand.toCards();
+        Assert.assertEquals(3, cards.size());
+        // 按等级由大到小排列：大王、A、3
+        Assert.assertEquals(54, cards.get(0).getId());
+        Assert.assertEquals(13, cards.get(1).getId());
+        Assert.assertEquals(2, cards.get(2).getId());
+        Assert.assertEquals(hand, Hand.of(cards));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateCards() {
+        Hand.of(Arrays.asList(new Card(3), new Card(3)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalId() {
+        Hand.EMPTY.add(55);
+    }
+}
@@ -0,0 +1,136 @@
+package site.pushy.landlords.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.pushy.landlords.core.enums.RoomStatusEnum;
+import site.pushy.landlords.pojo.DO.User;
+import site.pushy.landlords.pojo.DTO.RoomListOutputDTO;
+import site.pushy.landlords.pojo.Player;
+import site.pushy.landlords.pojo.Room;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class LobbyIndexTest {
+
+    private static final String[] TITLES = {"欢乐斗地主", "欢乐场", "高手场", "新手村", "abc", "ab", ""};
+
+    /**
+     * 各种过滤条件下逐页查询的结果与直接过滤所有房间的结果一致
+     */
+    @Test
+    public void queryPages() {
+        Random random = new Random(42);
+        Map<String, Room> rooms = new HashMap<>();
+        LobbyIndex index = new LobbyIndex();
+        for (int i = 0; i < 500; i++) {
+            Room room = newRoom(String.valueOf(100000 + i), TITLES[random.nextInt(TITLES.length)],
+                    random.nextBoolean(), random.nextBoolean() ? RoomStatusEnum.PLAYING : RoomStatusEnum.PREPARING,
+                    1 + random.nextInt(3));
+            rooms.put(room.getId(), room);
+            index.update(room.getId(), room::getLobbyEntry);
+        }
+        Assert.assertEquals(rooms.size(), index.size());
+
+        RoomStatusEnum[] statuses = {null, RoomStatusEnum.PLAYING, RoomStatusEnum.PREPARING};
+        Boolean[] locks = {null, true, false};
+        String[] prefixes = {null, "欢乐", "ab", "abc", "无"};
+        for (RoomStatusEnum status : statuses) {
+            for (Boolean locked : locks) {
+                for (int minFreeSeats = 0; minFreeSeats <= 3; minFreeSeats++) {
+                    for (String prefix : prefixes) {
+                        List<String> expected = expected(rooms.values(), status, locked, minFreeSeats, prefix);
+                        Assert.assertEquals(expected, pageAll(index, status, locked, minFreeSeats, prefix, 7));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 房间状态、人数变化后移动到新的桶，解散后从索引中移除
+     */
+    @Test
+    public void update() {
+        LobbyIndex index = new LobbyIndex();
+        Room room = newRoom("100001", "test", false, RoomStatusEnum.PREPARING, 1);
+        index.update(room.getId(), room::getLobbyEntry);
+        Assert.assertEquals(1, query(index, null, null, 2, null).size());
+
+        Player player = new Player(2);
+        player.setUser(new User());
+        room.addUser(player.getUser());
+        room.addPlayer(player);
+        room.setLobbyEntry(new RoomListOutputDTO(room));
+        index.update(room.getId(), room::getLobbyEntry);
+        Assert.assertTrue(query(index, null, null, 2, null).isEmpty());
+        Assert.assertEquals(1, query(index, null, null, 1, null).size());
+
+        room.setStatus(RoomStatusEnum.PLAYING);
+        room.setLobbyEntry(new RoomListOutputDTO(room));
+        index.update(room.getId(), room::getLobbyEntry);
+        Assert.assertTrue(query(index, RoomStatusEnum.PREPARING, null, 0, null).isEmpty());
+        Assert.assertEquals(1, query(index, RoomStatusEnum.PLAYING, null, 0, "te").size());
+        Assert.assertEquals(Collections.singletonList(room.getId()), index.roomIds(RoomStatusEnum.PLAYING));
+        Assert.assertTrue(index.roomIds(RoomStatusEnum.PREPARING).isEmpty());
+        Assert.assertEquals(1, index.size());
+
+        index.update(room.getId(), () -> null);
+        Assert.assertTrue(query(index, null, null, 0, null).isEmpty());
+        Assert.assertEquals(0, index.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCursor() {
+        new LobbyIndex().query(null, null, 0, null, "%%", 10);
+    }
+
+    private static List<String> pageAll(LobbyIndex index, RoomStatusEnum status, Boolean locked,
+                                        int minFreeSeats, String prefix, int limit) {
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            LobbyIndex.Page page = index.query(status, locked, minFreeSeats, prefix, cursor, limit);
+            Assert.assertTrue(page.getRooms().size() <= limit);
+            Assert.assertTrue(page.getNext() == null || page.getRooms().size() == limit);
+            page.getRooms().forEach(entry -> ids.add(entry.getId()));
+            cursor = page.getNext();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private static List<RoomListOutputDTO> query(LobbyIndex index, RoomStatusEnum status, Boolean locked,
+                                                 int minFreeSeats, String prefix) {
+        return index.query(status, locked, minFreeSeats, prefix, null, 100).getRooms();
+    }
+
+    private static List<String> expected(Collection<Room> rooms, RoomStatusEnum status, Boolean locked,
+                                         int minFreeSeats, String prefix) {
+        return rooms.stream()
+                .map(Room::getLobbyEntry)
+                .filter(entry -> status == null || entry.getStatus() == status)
+                .filter(entry -> locked == null || entry.isLocked() == locked)
+                .filter(entry -> entry.getFreeSeats() >= minFreeSeats)
+                .filter(entry -> prefix == null || entry.getTitle().startsWith(prefix))
+                .sorted(Comparator.comparing(RoomListOutputDTO::getTitle).thenComparing(RoomListOutputDTO::getId))
+                .map(RoomListOutputDTO::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static Room newRoom(String id, String title, boolean locked, RoomStatusEnum status, int players) {
+        Room room = new Room(id);
+        room.setTitle(title);
+        room.setLocked(locked);
+        room.setStatus(status);
+        for (int i = 1; i <= players; i++) {
+            User user = new User();
+            Player player = new Player(i);
+            player.setUser(user);
+            room.addUser(user);
+            room.addPlayer(player);
+        }
+        room.setOwner(room.getUserList().get(0));
+        room.setLobbyEntry(new RoomListOutputDTO(room));
+        return room;
+    }
+}
@@ -0,0 +1,107 @@
+package site.pushy.landlords.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class MoveGeneratorTest {
+
+    private final PatternTable table = PatternTable.standard();
+
+    /**
+     * 与穷举手牌的所有子直方图再逐一比较大小的结果保持一致
+     */
+    @Test
+    public void sameAsBruteForce() {
+        Random random = new Random(20190201L);
+        for (int i = 0; i < 1000; i++) {
+            long hand = randomHand(random, 4 + random.nextInt(12));
+            List<Long> subsets = new ArrayList<>();
+            subsets(hand, GradeHistogram.MIN_GRADE, GradeHistogram.EMPTY, subsets);
+
+            for (int j = 0; j < 10; j++) {
+                long prev = j % 2 == 0
+                        ? subsets.get(random.nextInt(subsets.size()))
+                        : table.histogramAt(random.nextInt(table.size()));
+                int prevPattern = table.lookup(prev);
+                if (prevPattern == CardPattern.ILLEGAL) {
+                    continue;
+                }
+                int prevSize = GradeHistogram.size(prev);
+
+                Set<Long> expected = new HashSet<>();
+                for (long move : subsets) {
+                    int pattern = table.lookup(move);
+                    if (pattern != CardPattern.ILLEGAL
+                            && GradeComparison.canPlayCards(pattern, GradeHistogram.size(move), prevPattern, prevSize)) {
+                        expected.add(move);
+                    }
+                }
+                List<Long> actual = new ArrayList<>();
+                MoveGenerator.forEachResponse(hand, prevPattern, prevSize, actual::add);
+
+                Assert.assertEquals("不应该生成重复的出牌", actual.size(), new HashSet<>(actual).size());
+                Assert.assertEquals(expected, new HashSet<>(actual));
+                Assert.assertEquals(!expected.isEmpty(), MoveGenerator.hasResponse(hand, prevPattern, prevSize));
+            }
+        }
+    }
+
+    @Test
+    public void allMovesSameAsBruteForce() {
+        Random random = new Random(20190202L);
+        for (int i = 0; i < 300; i++) {
+            long hand = randomHand(random, 4 + random.nextInt(12));
+            List<Long> subsets = new ArrayList<>();
+            subsets(hand, GradeHistogram.MIN_GRADE, GradeHistogram.EMPTY, subsets);
+            Set<Long> expected = new HashSet<>();
+            for (long move : subsets) {
+                if (table.lookup(move) != CardPattern.ILLEGAL) {
+                    expected.add(move);
+                }
+            }
+            long[] moves = MoveGenerator.allMoves(hand);
+            Set<Long> actual = new HashSet<>();
+            for (long move : moves) {
+                actual.add(move);
+            }
+            Assert.assertEquals("不应该生成重复的出牌", moves.length, actual.size());
+            Assert.assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void memoized() {
+        Hand hand = Hand.ofMask(Hand.FULL_MASK >>> 34);
+        Hand lastPlay = Hand.EMPTY.add(1);
+        Assert.assertSame(MoveGenerator.allMoves(hand), MoveGenerator.allMoves(hand));
+        long[] responses = MoveGenerator.responses(hand, lastPlay);
+        Assert.assertSame(responses, MoveGenerator.responses(hand, lastPlay));
+        Assert.assertEquals(0, MoveGenerator.responses(hand, Hand.EMPTY.add(53).add(54)).length);
+    }
+
+    private long randomHand(Random random, int size) {
+        long mask = 0;
+        while (Long.bitCount(mask) < size) {
+            mask |= 1L << random.nextInt(Hand.DECK_SIZE);
+        }
+        return Hand.ofMask(mask).getHistogram();
+    }
+
+    private void subsets(long hand, int grade, long current, List<Long> out) {
+        if (grade > GradeHistogram.MAX_GRADE) {
+            if (current != GradeHistogram.EMPTY) {
+                out.add(current);
+            }
+            return;
+        }
+        for (int count = 0; count <= GradeHistogram.count(hand, grade); count++) {
+            subsets(hand, grade + 1, current + GradeHistogram.unit(grade) * count, out);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package site.pushy.landlords.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.pushy.landlords.core.enums.CardGradeEnum;
+import site.pushy.landlords.pojo.Card;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class PatternTableTest {
+
+    private static final CardGradeEnum[] GRADES = CardGradeEnum.values();
+
+    private final PatternTable table = PatternTable.standard();
+
+    /**
+     * 资源文件需要和当前规则生成的牌型表一致，规则变化后需要重新生成资源文件
+     */
+    @Test
+    public void resourceUpToDate() throws IOException {
+        PatternTable generated = PatternTable.generate();
+        PatternTable loaded;
+        try (InputStream in = PatternTable.class.getResourceAsStream(PatternTable.RESOURCE)) {
+            Assert.assertNotNull(in);
+            loaded = PatternTable.read(in);
+        }
+        assertSameTable(generated, loaded);
+    }
+
+    @Test
+    public void writeAndRead() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        table.write(out);
+        assertSameTable(table, PatternTable.read(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    /**
+     * 表中的每一种出牌都需要被 TypeJudgement 判定为相同的类型
+     */
+    @Test
+    public void everyEntryMatchesTypeJudgement() {
+        for (int i = 0; i < table.size(); i++) {
+            long histogram = table.histogramAt(i);
+            List<Card> cards = toCards(histogram);
+            Assert.assertEquals(cards.toString(),
+                    CardPatternTest.judge(cards), CardPattern.getType(table.patternAt(i)));
+        }
+    }
+
+    /**
+     * 穷举 8 张以内的所有等级组合
+     */
+    @Test
+    public void smallMultisetsMatchTypeJudgement() {
+        enumerate(GradeHistogram.MIN_GRADE, GradeHistogram.EMPTY, 8);
+    }
+
+    /**
+     * 20 张以内的组合无法全部穷举，对表中的出牌增减一张牌以及随机组合进行抽样
+     */
+    @Test
+    public void sampledMultisetsMatchTypeJudgement() {
+        Random random = new Random(20181228L);
+        for (int i = 0; i < 200000; i++) {
+            long histogram;
+            if (i % 2 == 0) {
+                histogram = table.histogramAt(random.nextInt(table.size()));
+                int grade = 1 + random.nextInt(GradeHistogram.MAX_GRADE);
+                if (random.nextBoolean() && GradeHistogram.count(histogram, grade) > 0) {
+                    histogram = GradeHistogram.remove(histogram, grade);
+                } else if (GradeHistogram.count(histogram, grade) < maxCount(grade)) {
+                    histogram = GradeHistogram.add(histogram, grade);
+                }
+            } else {
+                histogram = GradeHistogram.EMPTY;
+                int size = 1 + random.nextInt(PatternTable.MAX_CARDS);
+                while (GradeHistogram.size(histogram) < size) {
+                    int grade = 1 + random.nextInt(GradeHistogram.MAX_GRADE);
+                    if (GradeHistogram.count(histogram, grade) < maxCount(grade)) {
+                        histogram = GradeHistogram.add(histogram, grade);
+                    }
+                }
+            }
+            assertMatches(histogram);
+        }
+    }
+
+    private void enumerate(int grade, long histogram, int left) {
+        if (grade > GradeHistogram.MAX_GRADE) {
+            assertMatches(histogram);
+            return;
+        }
+        int max = Math.min(maxCount(grade), left);
+        for (int count = 0; count <= max; count++) {
+            enumerate(grade + 1, histogram + GradeHistogram.unit(grade) * count, left - count);
+        }
+    }
+
+    private void assertMatches(long histogram) {
+        if (histogram == GradeHistogram.EMPTY || GradeHistogram.size(histogram) > PatternTable.MAX_CARDS) {
+            return;
+        }
+        List<Card> cards = toCards(histogram);
+        Assert.assertEquals(cards.toString(),
+                CardPatternTest.judge(cards), CardPattern.getType(table.lookup(histogram)));
+    }
+
+    private void assertSameTable(PatternTable expected, PatternTable actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.histogramAt(i), actual.histogramAt(i));
+            Assert.assertEquals(expected.patternAt(i), actual.patternAt(i));
+        }
+    }
+
+    private static int maxCount(int grade) {
+        return grade >= 14 ? 1 : 4;
+    }
+
+    private static List<Card> toCards(long histogram) {
+        List<Card> cards = new ArrayList<>();
+        for (int grade = GradeHistogram.MIN_GRADE; grade <= GradeHistogram.MAX_GRADE; grade++) {
+            for (int i = 0; i < GradeHistogram.count(histogram, grade); i++) {
+                cards.add(new Card(GRADES[grade - 1]));
+            }
+        }
+        return cards;
+    }
+}
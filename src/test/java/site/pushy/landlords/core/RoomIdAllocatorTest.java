@@ -0,0 +1,72 @@
+package site.pushy.landlords.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.BitSet;
+
+public class RoomIdAllocatorTest {
+
+    private static final int CAPACITY = RoomIdAllocator.MAX_ID - RoomIdAllocator.MIN_ID + 1;
+
+    /**
+     * 分配完整个房间号空间，每个房间号恰好出现一次，之后只能分配回收的房间号
+     */
+    @Test
+    public void exhaust() {
+        RoomIdAllocator allocator = new RoomIdAllocator(42);
+        BitSet seen = new BitSet(CAPACITY);
+        for (int i = 0; i < CAPACITY; i++) {
+            int id = allocator.allocate();
+            Assert.assertTrue(id >= RoomIdAllocator.MIN_ID && id <= RoomIdAllocator.MAX_ID);
+            Assert.assertFalse(seen.get(id - RoomIdAllocator.MIN_ID));
+            seen.set(id - RoomIdAllocator.MIN_ID);
+        }
+        Assert.assertEquals(CAPACITY, allocator.size());
+        try {
+            allocator.allocate();
+            Assert.fail("房间号用完时应该分配失败");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        allocator.release(123456);
+        allocator.release(654321);
+        Assert.assertEquals(123456, allocator.allocate());
+        Assert.assertEquals(654321, allocator.allocate());
+    }
+
+    @Test
+    public void recycleLast() {
+        RoomIdAllocator allocator = new RoomIdAllocator(7);
+        int first = allocator.allocate();
+        allocator.release(first);
+        // 还有全新的房间号时不复用回收的房间号
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertNotEquals(first, allocator.allocate());
+        }
+        Assert.assertEquals(1000, allocator.size());
+    }
+
+    @Test
+    public void deterministic() {
+        RoomIdAllocator a = new RoomIdAllocator(1);
+        RoomIdAllocator b = new RoomIdAllocator(1);
+        RoomIdAllocator c = new RoomIdAllocator(2);
+        boolean differs = false;
+        for (int i = 0; i < 100; i++) {
+            int id = a.allocate();
+            Assert.assertEquals(id, b.allocate());
+            differs |= id != c.allocate();
+        }
+        Assert.assertTrue(differs);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void releaseUnused() {
+        RoomIdAllocator allocator = new RoomIdAllocator(3);
+        int id = allocator.allocate();
+        allocator.release(id);
+        allocator.release(id);
+    }
+}
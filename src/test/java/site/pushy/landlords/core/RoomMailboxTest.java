@@ -0,0 +1,136 @@
+package site.pushy.landlords.core;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RoomMailboxTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void serial() throws Exception {
+        int rooms = 8;
+        int submitters = 8;
+        int commands = 2000;
+        RoomMailbox[] mailboxes = new RoomMailbox[rooms];
+        int[] counters = new int[rooms];
+        AtomicBoolean[] running = new AtomicBoolean[rooms];
+        for (int i = 0; i < rooms; i++) {
+            mailboxes[i] = new RoomMailbox(executor);
+            running[i] = new AtomicBoolean();
+        }
+        AtomicInteger overlaps = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(submitters);
+        List<Future<List<CompletableFuture<Integer>>>> submitted = new ArrayList<>();
+        try {
+            for (int s = 0; s < submitters; s++) {
+                int offset = s;
+                submitted.add(clients.submit(() -> {
+                    List<CompletableFuture<Integer>> futures = new ArrayList<>();
+                    for (int i = 0; i < commands; i++) {
+                        int room = (offset + i) % rooms;
+                        futures.add(mailboxes[room].submit(() -> {
+                            if (!running[room].compareAndSet(false, true)) {
+                                overlaps.incrementAndGet();
+                            }
+                            // 不加锁的自增，只有串行执行时结果才正确
+                            int value = ++counters[room];
+                            running[room].set(false);
+                            return value;
+                        }));
+                    }
+                    return futures;
+                }));
+            }
+            for (Future<List<CompletableFuture<Integer>>> each : submitted) {
+                for (CompletableFuture<Integer> future : each.get()) {
+                    future.get(10, TimeUnit.SECONDS);
+                }
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        Assert.assertEquals(0, overlaps.get());
+        int total = 0;
+        for (int i = 0; i < rooms; i++) {
+            int room = i;
+            // 在邮箱中读取，保证看到所有命令的修改
+            total += mailboxes[room].submit(() -> counters[room]).get();
+        }
+        Assert.assertEquals(submitters * commands, total);
+    }
+
+    @Test
+    public void order() throws Exception {
+        RoomMailbox mailbox = new RoomMailbox(executor);
+        List<Integer> executed = new ArrayList<>();
+        CompletableFuture<?> last = null;
+        for (int i = 0; i < 1000; i++) {
+            int value = i;
+            last = mailbox.submit(() -> executed.add(value));
+        }
+        last.get(10, TimeUnit.SECONDS);
+        List<Integer> snapshot = mailbox.submit(() -> new ArrayList<>(executed)).get();
+        for (int i = 0; i < snapshot.size(); i++) {
+            Assert.assertEquals(i, (int) snapshot.get(i));
+        }
+        Assert.assertEquals(1000, snapshot.size());
+    }
+
+    @Test
+    public void reentrant() throws Exception {
+        RoomMailbox mailbox = new RoomMailbox(executor);
+        List<String> executed = new ArrayList<>();
+        String result = mailbox.submit(() -> {
+            executed.add("outer");
+            // 在命令内提交并等待不会死锁，并且在外层命令结束前执行
+            String inner = mailbox.submit(() -> {
+                executed.add("inner");
+                return "inner";
+            }).join();
+            executed.add("after");
+            return inner;
+        }).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals("inner", result);
+        Assert.assertEquals(3, mailbox.submit(executed::size).get().intValue());
+        Assert.assertEquals("after", executed.get(2));
+    }
+
+    @Test
+    public void failure() throws Exception {
+        RoomMailbox mailbox = new RoomMailbox(executor);
+        CompletableFuture<Object> failed = mailbox.submit(() -> {
+            throw new IllegalStateException("failed");
+        });
+        try {
+            failed.get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        // 失败的命令不影响后续的命令
+        Assert.assertEquals(1, mailbox.submit(() -> 1).get(10, TimeUnit.SECONDS).intValue());
+
+        // 正在执行的批次仍然会执行刚提交的命令，因此使用一个已经关闭的线程池
+        ExecutorService closed = Executors.newSingleThreadExecutor();
+        closed.shutdownNow();
+        try {
+            new RoomMailbox(closed).submit(() -> 2).get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package site.pushy.landlords.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.pushy.landlords.pojo.DO.User;
+import site.pushy.landlords.pojo.Player;
+import site.pushy.landlords.pojo.Room;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class RoomRegistryTest {
+
+    @Test
+    public void lifecycle() {
+        RoomRegistry registry = new RoomRegistry(4);
+        User owner = new User();
+        Room room = newRoom("100001", owner);
+        Assert.assertTrue(registry.register(room));
+        Assert.assertSame(room, registry.getUserRoom(owner.getId()));
+        Assert.assertEquals(1, registry.size());
+        Assert.assertEquals(2, registry.freeSeats());
+
+        User guest = new User();
+        Assert.assertTrue(registry.join(room, newPlayer(2, guest)));
+        Assert.assertEquals(2, registry.playerCount());
+        // 已经在房间内的用户不能再创建或者加入房间
+        Assert.assertFalse(registry.register(newRoom("100002", guest)));
+        Assert.assertNull(registry.get("100002"));
+        Assert.assertFalse(registry.join(room, newPlayer(3, guest)));
+        Assert.assertEquals(2, room.getPlayerList().size());
+
+        Assert.assertFalse(registry.leave(room, owner.getId()));
+        Assert.assertNull(registry.getUserRoomId(owner.getId()));
+        Assert.assertTrue(registry.leave(room, guest.getId()));
+        Assert.assertNull(registry.get(room.getId()));
+        Assert.assertNull(registry.getUserRoom(guest.getId()));
+        Assert.assertEquals(0, registry.size());
+        Assert.assertEquals(0, registry.freeSeats());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void joinDissolved() {
+        RoomRegistry registry = new RoomRegistry(1);
+        User owner = new User();
+        Room room = newRoom("100001", owner);
+        registry.register(room);
+        registry.leave(room, owner.getId());
+        registry.join(room, newPlayer(2, new User()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shardCount() {
+        new RoomRegistry(3);
+    }
+
+    /**
+     * 多个线程同时让同一批用户创建、加入、退出房间，结束后每个用户最多在一个房间内，并且计数器与房间一致
+     */
+    @Test
+    public void concurrent() throws Exception {
+        RoomRegistry registry = new RoomRegistry(8);
+        User[] users = new User[64];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = new User();
+        }
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 20000; i++) {
+                        User user = users[random.nextInt(users.length)];
+                        String roomId = String.valueOf(100000 + random.nextInt(32));
+                        Room room = registry.get(roomId);
+                        // 房间的成员由房间的邮箱串行修改，这里用房间对象的锁代替
+                        if (room == null) {
+                            try {
+                                registry.register(newRoom(roomId, user));
+                            } catch (IllegalStateException e) {
+                                // 其他线程刚好创建了同一个房间号
+                            }
+                            continue;
+                        }
+                        synchronized (room) {
+                            if (random.nextBoolean()) {
+                                if (room.getPlayerList().size() < 3 && registry.get(roomId) == room) {
+                                    registry.join(room, newPlayer(room.getPlayerList().size() + 1, user));
+                                }
+                            } else if (room.getPlayerByUserId(user.getId()) != null) {
+                                registry.leave(room, user.getId());
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int players = 0;
+        int seats = 0;
+        for (Room room : registry.values()) {
+            Assert.assertFalse(room.getPlayerList().isEmpty());
+            players += room.getPlayerList().size();
+            seats += 3;
+            for (Player player : room.getPlayerList()) {
+                Assert.assertEquals(room.getId(), registry.getUserRoomId(player.getUser().getId()));
+            }
+        }
+        for (User user : users) {
+            Room room = registry.getUserRoom(user.getId());
+            Assert.assertTrue(room == null || room.getPlayerByUserId(user.getId()) != null);
+        }
+        Assert.assertEquals(registry.values().size(), registry.size());
+        Assert.assertEquals(players, registry.playerCount());
+        Assert.assertEquals(seats - players, registry.freeSeats());
+        int shardRooms = 0;
+        for (int i = 0; i < registry.shardCount(); i++) {
+            shardRooms += registry.shardSize(i);
+        }
+        Assert.assertEquals(registry.size(), shardRooms);
+    }
+
+    private static Room newRoom(String id, User owner) {
+        Room room = new Room(id);
+        room.addUser(owner);
+        room.addPlayer(newPlayer(1, owner));
+        return room;
+    }
+
+    private static Player newPlayer(int id, User user) {
+        Player player = new Player(id);
+        player.setUser(user);
+        return player;
+    }
+}
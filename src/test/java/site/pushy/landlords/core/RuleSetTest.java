@@ -0,0 +1,150 @@
+package site.pushy.landlords.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.pushy.landlords.core.enums.RuleVariantEnum;
+import site.pushy.landlords.core.enums.TypeEnum;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+public class RuleSetTest {
+
+    @Test
+    public void standard() {
+        RuleSet rules = RuleSet.forGame(RuleVariantEnum.STANDARD, 1L);
+        Assert.assertSame(RuleSet.standard(), rules);
+        Hand pair = Hand.EMPTY.add(2).add(15);
+        Assert.assertEquals(PlaySignature.of(pair), rules.signature(pair.getHistogram()));
+        Assert.assertEquals(0, rules.getWildGrade());
+        Assert.assertEquals(20, rules.getMaxCards());
+    }
+
+    @Test
+    public void laizi() {
+        // 3 为癞子
+        RuleSet rules = RuleSet.laizi(1);
+        long three = GradeHistogram.unit(1);
+        long fives = GradeHistogram.unit(3) * 2;
+        Assert.assertEquals(CardPattern.pack(TypeEnum.THREE, 3, 1),
+                PlaySignature.getPattern(rules.signature(fives + three)));
+        // 一张癞子加三张 4 优先视为炸弹
+        long bomb = rules.signature(GradeHistogram.unit(2) * 3 + three);
+        Assert.assertEquals(TypeEnum.BOMB, PlaySignature.getType(bomb));
+        // 管三带一时取能管住的三带一
+        long prev = PlaySignature.of(GradeHistogram.unit(1) * 3 + GradeHistogram.unit(5));
+        long response = rules.signature(GradeHistogram.unit(2) * 3 + three, prev);
+        Assert.assertEquals(TypeEnum.THREE_WITH_ONE, PlaySignature.getType(response));
+        // 王不能被癞子代替
+        Assert.assertEquals(PlaySignature.NONE, rules.signature(GradeHistogram.unit(15) + three));
+
+        Random random = new Random(5);
+        for (int round = 0; round < 50; round++) {
+            RuleSet each = RuleSet.laizi(random.nextInt(13) + 1);
+            assertMoves(each, randomHand(random, 10), random);
+        }
+    }
+
+    /**
+     * 同一手牌用癞子代替不同的等级只枚举一次，癞子较多时结果同样正确
+     */
+    @Test
+    public void laiziWildcards() {
+        Random random = new Random(11);
+        for (int round = 0; round < 30; round++) {
+            int wildGrade = random.nextInt(13) + 1;
+            RuleSet rules = RuleSet.laizi(wildGrade);
+            long hand = GradeHistogram.unit(wildGrade) * (2 + random.nextInt(3));
+            while (GradeHistogram.size(hand) < 10) {
+                int grade = random.nextInt(GradeHistogram.MAX_GRADE) + 1;
+                int max = grade >= 14 ? 1 : 4;
+                if (grade != wildGrade && GradeHistogram.count(hand, grade) < max) {
+                    hand = GradeHistogram.add(hand, grade);
+                }
+            }
+            List<Long> moves = new ArrayList<>();
+            Assert.assertTrue(rules.forEachMove(hand, moves::add));
+            Assert.assertEquals(moves.size(), new HashSet<>(moves).size());
+            assertMoves(rules, hand, random);
+        }
+    }
+
+    @Test
+    public void forGame() {
+        RuleSet rules = RuleSet.forGame(RuleVariantEnum.LAIZI, 42L);
+        Assert.assertSame(rules, RuleSet.forGame(RuleVariantEnum.LAIZI, 42L));
+        Assert.assertTrue(rules.getWildGrade() >= 1 && rules.getWildGrade() <= 13);
+    }
+
+    /**
+     * 与穷举手牌的所有子集得到的结果比较
+     * <p>
+     * 癞子玩法只枚举优先使用非癞子的组成方式，因此只要求是子集，并且不含癞子的出牌都被枚举到
+     */
+    private static void assertMoves(RuleSet rules, long hand, Random random) {
+        int wildGrade = rules.getWildGrade();
+        Set<Long> expected = new HashSet<>();
+        subsets(hand, GradeHistogram.MIN_GRADE, GradeHistogram.EMPTY, move -> {
+            if (rules.signature(move) != PlaySignature.NONE) {
+                expected.add(move);
+            }
+        });
+        Set<Long> actual = new HashSet<>();
+        Assert.assertTrue(rules.forEachMove(hand, actual::add));
+        assertCovers(expected, actual, wildGrade);
+
+        Long[] candidates = expected.toArray(new Long[0]);
+        long prev = rules.signature(candidates[random.nextInt(candidates.length)]);
+        Set<Long> expectedResponses = new HashSet<>();
+        for (long move : expected) {
+            if (rules.signature(move, prev) != PlaySignature.NONE) {
+                expectedResponses.add(move);
+            }
+        }
+        Set<Long> responses = new HashSet<>();
+        Assert.assertTrue(rules.forEachResponse(hand, prev, responses::add));
+        assertCovers(expectedResponses, responses, wildGrade);
+        Assert.assertEquals(!expectedResponses.isEmpty(), rules.hasResponse(hand, prev));
+    }
+
+    private static void assertCovers(Set<Long> expected, Set<Long> actual, int wildGrade) {
+        if (wildGrade == 0) {
+            Assert.assertEquals(expected, actual);
+            return;
+        }
+        Assert.assertTrue(expected.containsAll(actual));
+        for (long move : expected) {
+            if (GradeHistogram.count(move, wildGrade) == 0) {
+                Assert.assertTrue(actual.contains(move));
+            }
+        }
+    }
+
+    private static long randomHand(Random random, int size) {
+        long hand = GradeHistogram.EMPTY;
+        while (GradeHistogram.size(hand) < size) {
+            int grade = random.nextInt(GradeHistogram.MAX_GRADE) + 1;
+            int max = grade >= 14 ? 1 : 4;
+            if (GradeHistogram.count(hand, grade) < max) {
+                hand = GradeHistogram.add(hand, grade);
+            }
+        }
+        return hand;
+    }
+
+    private static void subsets(long hand, int grade, long move, LongConsumer consumer) {
+        if (grade > GradeHistogram.MAX_GRADE) {
+            if (move != GradeHistogram.EMPTY) {
+                consumer.accept(move);
+            }
+            return;
+        }
+        for (int count = 0; count <= GradeHistogram.count(hand, grade); count++) {
+            subsets(hand, grade + 1, move + GradeHistogram.unit(grade) * count, consumer);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package site.pushy.landlords.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SelfPlaySimulatorTest {
+
+    @Test
+    public void run() throws InterruptedException {
+        SelfPlaySimulator.Report report = new SelfPlaySimulator(2, new BotPlayer()).run(500, 2019L);
+        Assert.assertEquals(500, report.getGames());
+        Assert.assertEquals(report.getMismatchDetails().toString(), 0, report.getMismatches());
+        for (SelfPlaySimulator.Call call : SelfPlaySimulator.Call.values()) {
+            Assert.assertTrue(report.getLatency(call, 0.5) <= report.getLatency(call, 0.99));
+        }
+    }
+
+    /**
+     * 对照的比较与规则引擎的结果一致，飞机带翅膀按照三张的部分比较
+     */
+    @Test
+    public void legacyBeats() {
+        // 333444 + 5 + 6 与 444555 + 7 + 8
+        Hand aircraft = hand(1, 1, 1, 2, 2, 2, 3, 4);
+        Hand higher = hand(2, 2, 2, 3, 3, 3, 5, 6);
+        assertBeats(true, higher, aircraft);
+        assertBeats(false, aircraft, higher);
+        // 翅膀为对子时张数不同，不能比较
+        assertBeats(false, hand(2, 2, 2, 3, 3, 3, 5, 5, 6, 6), aircraft);
+        // 顺子长度不同不能比较
+        assertBeats(true, hand(2, 3, 4, 5, 6), hand(1, 2, 3, 4, 5));
+        assertBeats(false, hand(2, 3, 4, 5, 6, 7), hand(1, 2, 3, 4, 5));
+        // 炸弹管住其他牌型，王炸管住炸弹
+        assertBeats(true, hand(1, 1, 1, 1), hand(2, 3, 4, 5, 6));
+        assertBeats(false, hand(1, 1, 1, 1), hand(2, 2, 2, 2));
+        assertBeats(true, hand(14, 15), hand(2, 2, 2, 2));
+    }
+
+    private static void assertBeats(boolean expected, Hand play, Hand prev) {
+        Assert.assertEquals(expected, SelfPlaySimulator.legacyBeats(play.toCards(), prev.toCards()));
+        Assert.assertEquals(expected, PlaySignature.beats(PlaySignature.of(play), PlaySignature.of(prev)));
+    }
+
+    /**
+     * 按等级组成手牌，1 ~ 15 依次为 3 ~ 2、小王、大王
+     */
+    private static Hand hand(int... grades) {
+        Hand hand = Hand.EMPTY;
+        for (int grade : grades) {
+            for (int id = 1; id <= Hand.DECK_SIZE; id++) {
+                if (Hand.gradeOf(id) == grade && !hand.contains(id)) {
+                    hand = hand.add(id);
+                    break;
+                }
+            }
+        }
+        return hand;
+    }
+
+    @Test
+    public void latencyBuckets() {
+        for (long value = 0; value < 100000; value++) {
+            long lower = SelfPlaySimulator.Latency.lowerBound(SelfPlaySimulator.Latency.index(value));
+            Assert.assertTrue(lower <= value);
+            Assert.assertTrue(value - lower <= value / 8);
+        }
+        SelfPlaySimulator.Latency latency = new SelfPlaySimulator.Latency();
+        for (int i = 1; i <= 100; i++) {
+            latency.record(i);
+        }
+        Assert.assertEquals(48, latency.quantile(0.5));
+        Assert.assertEquals(100, latency.quantile(1));
+    }
+}
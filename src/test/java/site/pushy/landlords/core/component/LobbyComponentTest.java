@@ -0,0 +1,67 @@
+package site.pushy.landlords.core.component;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import site.pushy.landlords.LandlordsApplication;
+import site.pushy.landlords.pojo.DO.User;
+import site.pushy.landlords.pojo.Room;
+
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = LandlordsApplication.class)
+public class LobbyComponentTest {
+
+    @Resource
+    private LobbyComponent lobbyComponent;
+
+    @Resource
+    private RoomComponent roomComponent;
+
+    @Test
+    public void snapshot() {
+        LobbyComponent.Snapshot first = lobbyComponent.getSnapshot();
+        // 版本号不变时返回同一份快照
+        Assert.assertSame(first, lobbyComponent.getSnapshot());
+
+        User owner = mockUser();
+        Room room = roomComponent.createRoom(owner, "lobby", null);
+        LobbyComponent.Snapshot created = lobbyComponent.getSnapshot();
+        Assert.assertNotEquals(first.getETag(), created.getETag());
+        Assert.assertTrue(body(created).contains("\"" + room.getId() + "\""));
+
+        User guest = mockUser();
+        roomComponent.joinRoom(room.getId(), guest, null);
+        LobbyComponent.Snapshot joined = lobbyComponent.getSnapshot();
+        Assert.assertNotEquals(created.getETag(), joined.getETag());
+        Assert.assertTrue(body(joined).contains(guest.getId()));
+        // 分页查询的索引同时更新
+        String title = room.getTitle();
+        Assert.assertTrue(roomComponent.queryLobby(null, false, 1, title, null, 100).getRooms().stream()
+                .anyMatch(entry -> entry.getId().equals(room.getId())));
+        Assert.assertTrue(roomComponent.queryLobby(null, false, 2, title, null, 100).getRooms().stream()
+                .noneMatch(entry -> entry.getId().equals(room.getId())));
+
+        roomComponent.exitRoom(room.getId(), guest);
+        roomComponent.exitRoom(room.getId(), owner);
+        Assert.assertFalse(body(lobbyComponent.getSnapshot()).contains("\"" + room.getId() + "\""));
+        Assert.assertTrue(roomComponent.queryLobby(null, null, 0, title, null, 100).getRooms().stream()
+                .noneMatch(entry -> entry.getId().equals(room.getId())));
+    }
+
+    private static String body(LobbyComponent.Snapshot snapshot) {
+        return new String(snapshot.getBody(), StandardCharsets.UTF_8);
+    }
+
+    private User mockUser() {
+        User user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setUsername("Erica");
+        return user;
+    }
+}
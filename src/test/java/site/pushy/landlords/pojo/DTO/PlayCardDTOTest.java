@@ -0,0 +1,55 @@
+package site.pushy.landlords.pojo.DTO;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+import site.pushy.landlords.common.exception.BadRequestException;
+import site.pushy.landlords.core.ConstructCard;
+import site.pushy.landlords.pojo.Card;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+public class PlayCardDTOTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<Card> expected = Arrays.asList(ConstructCard.getCard(3), ConstructCard.getCard(16));
+
+    @Test
+    public void cardObjects() throws IOException {
+        String json = "[{\"id\":3,\"type\":\"DIAMOND\",\"number\":\"FOUR\",\"grade\":\"SECOND\",\"gradeValue\":2}," +
+                "{\"typeName\":\"梅花\",\"id\":16}]";
+        assertCards(json);
+    }
+
+    @Test
+    public void ids() throws IOException {
+        assertCards("[3, 16]");
+    }
+
+    @Test
+    public void mask() throws IOException {
+        assertCards("\"0x8004\"");
+        assertCards("\"32772\"");
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void illegalId() throws IOException {
+        objectMapper.readValue("[3, 55]", PlayCardDTO.class).toCards();
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void illegalMask() throws IOException {
+        objectMapper.readValue("\"0x40000000000000\"", PlayCardDTO.class).toCards();
+    }
+
+    private void assertCards(String json) throws IOException {
+        List<Card> cards = objectMapper.readValue(json, PlayCardDTO.class).toCards();
+        Assert.assertEquals(expected.size(), cards.size());
+        for (Card card : expected) {
+            Assert.assertTrue(cards.contains(card));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package site.pushy.landlords.pojo.DTO;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+import site.pushy.landlords.core.Hand;
+import site.pushy.landlords.pojo.DO.User;
+import site.pushy.landlords.pojo.Room;
+
+import java.io.IOException;
+
+public class RoomOutDTOTest {
+
+    @Test
+    public void remainingCards() throws IOException {
+        User owner = new User();
+        owner.setId("1");
+        owner.setUsername("Pushy");
+        Room room = new Room("100001");
+        room.setOwner(owner);
+        // 一对 3、大王
+        room.getTracker().record(Hand.EMPTY.add(2).add(15));
+        room.getTracker().record(Hand.EMPTY.add(54));
+
+        RoomOutDTO roomOutDTO = RoomOutDTO.fromRoom(room);
+        Assert.assertArrayEquals(new int[]{2, 4, 4, 4, 4, 4, 4, 4, 4, 4, 4, 4, 4, 1, 0},
+                roomOutDTO.getRemainingCards());
+
+        JsonNode json = new ObjectMapper().readTree(new ObjectMapper().writeValueAsString(roomOutDTO));
+        Assert.assertEquals(15, json.get("remainingCards").size());
+        Assert.assertEquals(2, json.get("remainingCards").get(0).asInt());
+    }
+}